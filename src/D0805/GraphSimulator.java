@@ -1,7 +1,13 @@
 package D0805;
 
+import GraphCore.CsrGraph; // 共用的 CSR 圖格式
+import GraphCore.GraphGenerator; // 共用的隨機圖產生器
+import GraphCore.GraphTraversal; // 不含動畫的 DFS / BFS 核心
+import GraphCore.StepLog; // 演算法步驟紀錄，供動畫重播
+import GraphCore.StronglyConnectedComponents; // 強連通元件
+import GraphCore.TopologicalSort; // Kahn 拓撲排序
+
 import javax.swing.*; // 用於 GUI 組件
-import javax.swing.Timer;
 import java.awt.*; // 用於繪圖和座標處理
 import java.awt.event.*; // 用於事件處理
 import java.util.*; // 用於集合類（如 ArrayList、HashSet、LinkedList）
@@ -11,7 +17,7 @@ public class GraphSimulator extends JFrame {
     private GraphPanel graphPanel; // 繪圖面板，用於顯示圖和搜尋動畫
     private JTextField nodeField, edgeField; // 輸入節點數和邊數的文本框
     private JCheckBox directedCheckBox; // 選擇是否為有向圖的複選框
-    private JButton generateButton, dfsButton, bfsButton; // 生成圖、執行 DFS 和 BFS 的按鈕
+    private JButton generateButton, dfsButton, bfsButton, sccButton; // 生成圖、執行 DFS、BFS 和 SCC 的按鈕
     private JLabel statusLabel; // 顯示狀態訊息的標籤
 
     // 建構函數，初始化 GUI
@@ -29,6 +35,7 @@ public class GraphSimulator extends JFrame {
         generateButton = new JButton("Generate Graph"); // 生成圖的按鈕
         dfsButton = new JButton("Run DFS"); // 執行 DFS 的按鈕
         bfsButton = new JButton("Run BFS"); // 執行 BFS 的按鈕
+        sccButton = new JButton("SCC / Topo"); // 強連通元件與拓撲順序的按鈕
         statusLabel = new JLabel("Ready"); // 狀態標籤，初始顯示 "Ready"
 
         // 將組件添加到控制面板
@@ -40,6 +47,7 @@ public class GraphSimulator extends JFrame {
         controlPanel.add(generateButton); // 添加生成按鈕
         controlPanel.add(dfsButton); // 添加 DFS 按鈕
         controlPanel.add(bfsButton); // 添加 BFS 按鈕
+        controlPanel.add(sccButton); // 添加 SCC 按鈕
         controlPanel.add(statusLabel); // 添加狀態標籤
 
         // 初始化繪圖面板
@@ -53,6 +61,8 @@ public class GraphSimulator extends JFrame {
         dfsButton.addActionListener(e -> graphPanel.startDFS());
         // 為 BFS 按鈕添加事件監聽器
         bfsButton.addActionListener(e -> graphPanel.startBFS());
+        // 點擊 SCC 按鈕時依強連通元件為節點著色，並在狀態列顯示元件數與拓撲順序
+        sccButton.addActionListener(e -> statusLabel.setText(graphPanel.showComponents()));
     }
 
     // 生成圖的方法，根據輸入參數創建圖
@@ -100,24 +110,13 @@ class GraphPanel extends JPanel {
     private ArrayList<Point> nodes = new ArrayList<>(); // 儲存節點座標
     private ArrayList<int[]> edges = new ArrayList<>(); // 儲存邊（每條邊為 [from, to]）
     private boolean isDirected; // 是否為有向圖
-    private ArrayList<Integer> visited = new ArrayList<>(); // 已訪問節點列表
-    private LinkedList<Integer> queue = new LinkedList<>(); // 用於 BFS 的佇列
-    private Stack<Integer> stack = new Stack<>(); // 用於 DFS 的堆疊
-    private Timer animationTimer; // 控制動畫的計時器
-    private boolean isDFS = false; // 當前是否執行 DFS 動畫
+    private BitSet visited = new BitSet(); // 已訪問節點（位元圖，查詢為 O(1)）
+    private StepPlayer player; // 重播搜尋步驟的動畫，每 500ms 一步
+    private int[] component; // 每個節點所屬的強連通元件，null 表示不著色
 
     // 建構函數，初始化繪圖面板
     public GraphPanel() {
         setBackground(Color.WHITE); // 設置背景為白色
-        // 初始化動畫計時器，每 500ms 更新一次
-        animationTimer = new Timer(500, e -> {
-            if (isDFS) {
-                processDFSStep(); // 執行 DFS 動畫步驟
-            } else {
-                processBFSStep(); // 執行 BFS 動畫步驟
-            }
-            repaint(); // 重繪面板
-        });
     }
 
     // 生成圖的方法
@@ -125,10 +124,9 @@ class GraphPanel extends JPanel {
         nodes.clear(); // 清空節點列表
         edges.clear(); // 清空邊列表
         visited.clear(); // 清空已訪問節點
-        queue.clear(); // 清空 BFS 佇列
-        stack.clear(); // 清空 DFS 堆疊
+        component = null; // 清除元件著色
         isDirected = directed; // 設置是否有向圖
-        animationTimer.stop(); // 停止當前動畫
+        stopAnimation(); // 停止當前動畫
 
         // 生成隨機節點座標
         Random rand = new Random();
@@ -139,64 +137,84 @@ class GraphPanel extends JPanel {
             ));
         }
 
-        // 生成連通圖：先創建一棵生成樹，確保圖連通
-        Set<Integer> connected = new HashSet<>(); // 已連通的節點集合
-        connected.add(0); // 從節點 0 開始
-        Set<String> edgeSet = new HashSet<>(); // 用於檢查邊是否重複
-        while (connected.size() < nodeCount) {
-            int from = new ArrayList<>(connected).get(rand.nextInt(connected.size())); // 從已連通節點中隨機選一個
-            int to = rand.nextInt(nodeCount); // 隨機選一個目標節點
-            if (!connected.contains(to)) { // 目標節點尚未連通
-                String edgeKey = directed ? from + "-" + to : Math.min(from, to) + "-" + Math.max(from, to);
-                if (!edgeSet.contains(edgeKey)) {
-                    edges.add(new int[]{from, to}); // 添加邊
-                    edgeSet.add(edgeKey);
-                    connected.add(to); // 將目標節點加入連通集合
-                }
-            }
+        // 生成連通圖：先從節點 0 長出一棵隨機生成樹確保連通，再添加剩餘的隨機邊（以 long 鍵檢查重複）
+        GraphGenerator.Edges generated = new GraphGenerator(rand.nextLong()).connectedRandom(nodeCount, edgeCount, directed);
+        for (int e = 0; e < generated.count; e++) {
+            edges.add(new int[]{generated.from[e], generated.to[e]}); // 添加邊
         }
+        repaint(); // 重繪面板
+    }
 
-        // 添加剩餘的隨機邊
-        while (edges.size() < edgeCount) {
-            int from = rand.nextInt(nodeCount);
-            int to = rand.nextInt(nodeCount);
-            if (from != to) { // 避免自環
-                String edgeKey = directed ? from + "-" + to : Math.min(from, to) + "-" + Math.max(from, to);
-                if (!edgeSet.contains(edgeKey)) {
-                    edges.add(new int[]{from, to});
-                    edgeSet.add(edgeKey);
-                }
-            }
+    // 將目前的圖轉為 CSR 快照（權重皆為 1），供 GraphCore 中的演算法使用
+    public CsrGraph toCsrGraph() {
+        int m = edges.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        for (int e = 0; e < m; e++) {
+            from[e] = edges.get(e)[0];
+            to[e] = edges.get(e)[1];
         }
-        repaint(); // 重繪面板
+        return CsrGraph.fromEdges(nodes.size(), from, to, null, m, isDirected);
     }
 
-    // 啟動 DFS 動畫
+    // 啟動 DFS 動畫：先以 GraphTraversal 全速跑完並記錄訪問順序，再逐步重播
     public void startDFS() {
-        visited.clear(); // 清空已訪問節點
-        queue.clear(); // 清空佇列
-        stack.clear(); // 清空堆疊
-        animationTimer.stop(); // 停止當前動畫
-        isDFS = true; // 設置為 DFS 模式
-        if (!nodes.isEmpty()) {
-            stack.push(0); // 從節點 0 開始
-            visited.add(0); // 標記起始節點為已訪問
-            animationTimer.start(); // 開始動畫
-        }
+        startAnimation(true);
     }
 
     // 啟動 BFS 動畫
     public void startBFS() {
+        startAnimation(false);
+    }
+
+    // 計算強連通元件並依元件著色；縮點後的 DAG 以 Kahn 演算法排出拓撲順序
+    public String showComponents() {
+        stopAnimation(); // 停止當前動畫
         visited.clear(); // 清空已訪問節點
-        queue.clear(); // 清空佇列
-        stack.clear(); // 清空堆疊
-        animationTimer.stop(); // 停止當前動畫
-        isDFS = false; // 設置為 BFS 模式
-        if (!nodes.isEmpty()) {
-            queue.offer(0); // 將起始節點加入佇列
-            visited.add(0); // 標記起始節點為已訪問
-            animationTimer.start(); // 開始動畫
+        if (nodes.isEmpty()) return "No graph";
+        CsrGraph graph = toCsrGraph();
+        StronglyConnectedComponents scc = StronglyConnectedComponents.tarjan(graph);
+        component = scc.labels();
+        repaint();
+        if (!isDirected) return "Connected components: " + scc.count();
+        int[] order = TopologicalSort.kahn(graph);
+        if (order == null) {
+            return "SCCs: " + scc.count() + " (graph has cycles, condensation has "
+                    + scc.condensation(graph).numEdges() + " edges)";
         }
+        StringBuilder text = new StringBuilder("DAG, topological order:");
+        for (int i = 0; i < Math.min(order.length, 20); i++) text.append(' ').append(order[i]);
+        if (order.length > 20) text.append(" ...");
+        return text.toString();
+    }
+
+    private void startAnimation(boolean dfs) {
+        visited.clear(); // 清空已訪問節點
+        component = null; // 清除元件著色
+        stopAnimation(); // 停止當前動畫
+        if (nodes.isEmpty()) return;
+        StepLog log = new StepLog();
+        if (dfs) {
+            GraphTraversal.dfs(toCsrGraph(), 0, log); // 從節點 0 開始
+        } else {
+            GraphTraversal.bfs(toCsrGraph(), 0, log);
+        }
+        player = new StepPlayer(log, 500, 1, new StepPlayer.Sink() {
+            @Override
+            public void apply(int type, int a, int b) {
+                visited.set(a); // 標記為已訪問
+            }
+
+            @Override
+            public void flush() {
+                repaint(); // 同一格的步驟只重繪一次
+            }
+        }, null);
+        player.start(); // 開始動畫
+    }
+
+    private void stopAnimation() {
+        if (player != null) player.stop();
     }
 
     // 繪製面板內容
@@ -221,8 +239,10 @@ class GraphPanel extends JPanel {
         // 繪製節點
         for (int i = 0; i < nodes.size(); i++) {
             Point p = nodes.get(i); // 獲取節點座標
-            if (visited.contains(i)) {
+            if (visited.get(i)) {
                 g2d.setColor(Color.RED); // 已訪問節點顯示為紅色
+            } else if (component != null) {
+                g2d.setColor(Color.getHSBColor(component[i] * 0.618034f % 1f, 0.8f, 0.8f)); // 同一元件同一顏色
             } else {
                 g2d.setColor(Color.BLUE); // 未訪問節點顯示為藍色
             }
@@ -230,55 +250,6 @@ class GraphPanel extends JPanel {
             g2d.setColor(Color.WHITE); // 節點編號的顏色
             g2d.drawString(String.valueOf(i), p.x - 5, p.y + 5); // 繪製節點編號
         }
-
-        // 檢查動畫是否應停止
-        if (animationTimer.isRunning() && visited.size() >= nodes.size()) {
-            animationTimer.stop(); // 所有節點都訪問過，停止動畫
-        }
-    }
-
-    // 處理 DFS 動畫的一個步驟
-    private void processDFSStep() {
-        if (!stack.isEmpty()) {
-            int current = stack.peek(); // 獲取堆疊頂部節點
-            boolean found = false; // 是否找到未訪問的鄰居
-            for (int[] edge : edges) {
-                int next = -1;
-                if (edge[0] == current && !visited.contains(edge[1])) {
-                    next = edge[1]; // 找到有向邊的鄰居
-                } else if (!isDirected && edge[1] == current && !visited.contains(edge[0])) {
-                    next = edge[0]; // 無向圖中檢查反向邊
-                }
-                if (next != -1) {
-                    stack.push(next); // 將新節點壓入堆疊
-                    visited.add(next); // 標記為已訪問
-                    found = true; // 找到鄰居
-                    break; // 每次只處理一個鄰居
-                }
-            }
-            if (!found) {
-                stack.pop(); // 無未訪問鄰居，彈出當前節點
-            }
-        }
-    }
-
-    // 處理 BFS 動畫的一個步驟
-    private void processBFSStep() {
-        if (!queue.isEmpty()) {
-            int current = queue.poll(); // 從佇列中取出當前節點
-            for (int[] edge : edges) {
-                int next = -1;
-                if (edge[0] == current && !visited.contains(edge[1])) {
-                    next = edge[1]; // 找到有向邊的鄰居
-                } else if (!isDirected && edge[1] == current && !visited.contains(edge[0])) {
-                    next = edge[0]; // 無向圖中檢查反向邊
-                }
-                if (next != -1) {
-                    queue.offer(next); // 將新節點加入佇列
-                    visited.add(next); // 標記為已訪問
-                }
-            }
-        }
     }
 
     // 繪製有向邊的箭頭
@@ -1,8 +1,16 @@
 package D0805;
 
+import GraphCore.CsrGraph;
+import GraphCore.EdgeListLoader;
+import GraphCore.GraphGenerator;
+import GraphCore.MinimumSpanningForest;
+import GraphCore.StepLog;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
 
@@ -12,11 +20,12 @@ public class MSTSimulator extends JFrame {
     private JComboBox<String> algoComboBox;
     private JTextArea outputArea;
     private GraphCanvas canvas;
-    private JButton startButton;
+    private JButton startButton, loadButton;
     private List<Node> nodes;
     private List<Edge> edges;
     private List<Edge> mstEdges;
     private Random rand = new Random();
+    private StepPlayer player;
 
     public MSTSimulator() {
         setTitle("最小生成樹模擬器");
@@ -40,6 +49,8 @@ public class MSTSimulator extends JFrame {
         controlPanel.add(algoComboBox);
         startButton = new JButton("開始模擬");
         controlPanel.add(startButton);
+        loadButton = new JButton("載入邊串列");
+        controlPanel.add(loadButton);
         add(controlPanel, BorderLayout.NORTH);
 
         // 輸出區域
@@ -53,23 +64,90 @@ public class MSTSimulator extends JFrame {
 
         // 按鈕事件
         startButton.addActionListener(e -> startSimulation());
+        loadButton.addActionListener(e -> loadEdgeList());
+    }
+
+    /**
+     * 以 EdgeListLoader 讀取邊串列檔 (.bin 為二進位格式，其餘視為文字 "u v w")，
+     * 在背景執行緒以 filter-Kruskal 計算最小生成森林，只輸出結果摘要，不繪製也不播放動畫。
+     */
+    private void loadEdgeList() {
+        JFileChooser fileChooser = new JFileChooser();
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = fileChooser.getSelectedFile();
+        if (player != null) player.stop();
+        canvas.clear();
+        outputArea.setText("載入 " + file.getName() + "...\n");
+        startButton.setEnabled(false);
+        loadButton.setEnabled(false);
+        new Thread(() -> {
+            String message;
+            try {
+                long begin = System.nanoTime();
+                CsrGraph graph = file.getName().endsWith(".bin")
+                        ? EdgeListLoader.loadBinary(file.toPath())
+                        : EdgeListLoader.loadText(file.toPath(), false);
+                long loaded = System.nanoTime();
+                MinimumSpanningForest.Result result = MinimumSpanningForest.of(graph).filterKruskal();
+                long done = System.nanoTime();
+                message = "節點數=" + graph.numVertices() + "，邊數=" + graph.numEdges()
+                        + "，載入 " + (loaded - begin) / 1_000_000 + " ms\n"
+                        + "最小生成森林：" + result.edgeCount + " 條邊，" + result.components + " 個連通塊，總權重："
+                        + result.totalWeight + "，計算 " + (done - loaded) / 1_000_000 + " ms\n";
+            } catch (IOException | RuntimeException ex) {
+                message = "錯誤：" + ex.getMessage() + "\n";
+            }
+            final String text = message;
+            SwingUtilities.invokeLater(() -> {
+                outputArea.append(text);
+                startButton.setEnabled(true);
+                loadButton.setEnabled(true);
+            });
+        }).start();
     }
 
     private void startSimulation() {
+        if (player != null) player.stop();
         outputArea.setText("");
         canvas.clear();
         if (!generateGraph()) return;
         canvas.repaint();
         String algorithm = (String) algoComboBox.getSelectedItem();
-        new Thread(() -> {
-            SwingUtilities.invokeLater(() -> startButton.setEnabled(false));
-            if (algorithm.equals("Kruskal")) {
-                runKruskal();
-            } else {
-                runPrim();
+        int delay = Integer.parseInt(speedField.getText());
+
+        // 演算法本身全速執行並記錄步驟，動畫只是事後重播紀錄
+        StepLog log = new StepLog();
+        outputArea.append("執行" + algorithm + "演算法...\n");
+        int[] chosen = algorithm.equals("Kruskal") ? runKruskal(log) : runPrim(log);
+        int totalWeight = 0;
+        for (int e : chosen) totalWeight += edges.get(e).weight;
+        final int total = totalWeight;
+
+        startButton.setEnabled(false);
+        StringBuilder pending = new StringBuilder();
+        player = new StepPlayer(log, delay, 1, new StepPlayer.Sink() {
+            @Override
+            public void apply(int type, int a, int b) {
+                Edge edge = edges.get(a);
+                mstEdges.add(edge);
+                pending.append("加入邊 (").append(edge.u).append(", ").append(edge.v)
+                        .append(")，權重=").append(edge.weight).append('\n');
+                canvas.setCurrentEdge(edge);
             }
-            SwingUtilities.invokeLater(() -> startButton.setEnabled(true));
-        }).start();
+
+            @Override
+            public void flush() {
+                outputArea.append(pending.toString());
+                pending.setLength(0);
+                canvas.repaint();
+            }
+        }, () -> {
+            outputArea.append(algorithm + "演算法完成。總權重：" + total + "\n");
+            canvas.setCurrentEdge(null);
+            canvas.repaint();
+            startButton.setEnabled(true);
+        });
+        player.start();
     }
 
     private boolean generateGraph() {
@@ -106,105 +184,40 @@ public class MSTSimulator extends JFrame {
             nodes.add(new Node(i, x, y));
         }
 
-        // 生成隨機邊
-        Set<String> edgeSet = new HashSet<>();
-        while (edges.size() < numEdges) {
-            int u = rand.nextInt(numNodes);
-            int v = rand.nextInt(numNodes);
-            if (u != v && !edgeSet.contains(u + "-" + v) && !edgeSet.contains(v + "-" + u)) {
-                int weight = rand.nextInt(90) + 10;
-                edges.add(new Edge(u, v, weight));
-                edgeSet.add(u + "-" + v);
-            }
+        // 生成隨機邊 (不重複、無自環)
+        GraphGenerator.Edges generated = new GraphGenerator(rand.nextLong()).erdosRenyi(numNodes, numEdges, false);
+        for (int e = 0; e < generated.count; e++) {
+            int weight = rand.nextInt(90) + 10;
+            edges.add(new Edge(generated.from[e], generated.to[e], weight));
         }
         outputArea.append("已生成圖：節點數=" + numNodes + "，邊數=" + numEdges + "\n");
         return true;
     }
 
-    private void runKruskal() {
-        int delay = Integer.parseInt(speedField.getText());
-        outputArea.append("執行Kruskal演算法...\n");
-        Collections.sort(edges);
-        DisjointSet ds = new DisjointSet(nodes.size());
-        mstEdges.clear();
-        int edgeCount = 0;
-
-        for (Edge edge : edges) {
-            int u = ds.find(edge.u);
-            int v = ds.find(edge.v);
-            if (u != v) {
-                mstEdges.add(edge);
-                ds.union(u, v);
-                edgeCount++;
-                SwingUtilities.invokeLater(() -> {
-                    outputArea.append("加入邊 (" + edge.u + ", " + edge.v + ")，權重=" + edge.weight + "\n");
-                    canvas.setCurrentEdge(edge);
-                    canvas.repaint();
-                });
-                try {
-                    Thread.sleep(delay);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (edgeCount == nodes.size() - 1) break;
-        }
-        SwingUtilities.invokeLater(() -> {
-            outputArea.append("Kruskal演算法完成。總權重：" +
-                    mstEdges.stream().mapToInt(e -> e.weight).sum() + "\n");
-            canvas.setCurrentEdge(null);
-            canvas.repaint();
-        });
+    private int[] runKruskal(StepLog log) {
+        return MstAlgorithms.kruskal(nodes.size(), edgeEndpoints(true), edgeEndpoints(false),
+                edgeWeights(), edges.size(), log);
     }
 
-    private void runPrim() {
-        int delay = Integer.parseInt(speedField.getText());
-        outputArea.append("執行Prim演算法...\n");
-        PriorityQueue<Edge> pq = new PriorityQueue<>();
-        boolean[] inMST = new boolean[nodes.size()];
-        mstEdges.clear();
-        int startVertex = 0;
-        inMST[startVertex] = true;
-
-        for (Edge edge : edges) {
-            if (edge.u == startVertex) {
-                pq.add(edge);
-            } else if (edge.v == startVertex) {
-                pq.add(new Edge(edge.v, edge.u, edge.weight));
-            }
-        }
+    private int[] runPrim(StepLog log) {
+        return MstAlgorithms.prim(nodes.size(), edgeEndpoints(true), edgeEndpoints(false),
+                edgeWeights(), edges.size(), 0, log);
+    }
 
-        while (!pq.isEmpty() && mstEdges.size() < nodes.size() - 1) {
-            Edge edge = pq.poll();
-            int v = inMST[edge.u] ? edge.v : edge.u;
-            if (inMST[v]) continue;
-            inMST[v] = true;
-            mstEdges.add(edge);
-            SwingUtilities.invokeLater(() -> {
-                outputArea.append("加入邊 (" + edge.u + ", " + edge.v + ")，權重=" + edge.weight + "\n");
-                canvas.setCurrentEdge(edge);
-                canvas.repaint();
-            });
-            try {
-                Thread.sleep(delay);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+    private int[] edgeEndpoints(boolean source) {
+        int[] ids = new int[edges.size()];
+        for (int e = 0; e < ids.length; e++) {
+            ids[e] = source ? edges.get(e).u : edges.get(e).v;
+        }
+        return ids;
+    }
 
-            for (Edge e : edges) {
-                if (e.u == v && !inMST[e.v]) {
-                    pq.add(new Edge(v, e.v, e.weight));
-                } else if (e.v == v && !inMST[e.u]) {
-                    pq.add(new Edge(v, e.u, e.weight));
-                }
-            }
+    private int[] edgeWeights() {
+        int[] weights = new int[edges.size()];
+        for (int e = 0; e < weights.length; e++) {
+            weights[e] = edges.get(e).weight;
         }
-        SwingUtilities.invokeLater(() -> {
-            outputArea.append("Prim演算法完成。總權重：" +
-                    mstEdges.stream().mapToInt(e -> e.weight).sum() + "\n");
-            canvas.setCurrentEdge(null);
-            canvas.repaint();
-        });
+        return weights;
     }
 
     private class Node {
@@ -216,32 +229,13 @@ public class MSTSimulator extends JFrame {
         }
     }
 
-    private class Edge implements Comparable<Edge> {
+    private class Edge {
         int u, v, weight;
         Edge(int u, int v, int weight) {
             this.u = u;
             this.v = v;
             this.weight = weight;
         }
-        @Override
-        public int compareTo(Edge other) {
-            return Integer.compare(this.weight, other.weight);
-        }
-    }
-
-    private class DisjointSet {
-        int[] parent;
-        DisjointSet(int size) {
-            parent = new int[size];
-            for (int i = 0; i < size; i++) parent[i] = i;
-        }
-        int find(int x) {
-            if (parent[x] != x) parent[x] = find(parent[x]);
-            return parent[x];
-        }
-        void union(int x, int y) {
-            parent[find(x)] = find(y);
-        }
     }
 
     private class GraphCanvas extends JPanel {
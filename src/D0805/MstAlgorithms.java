@@ -0,0 +1,216 @@
+package D0805;
+
+import GraphCore.DisjointSet;
+import GraphCore.StepLog;
+
+import java.util.Arrays;
+
+/**
+ * MSTSimulator 使用的 Kruskal / Prim 核心，不含任何延遲或 Swing 呼叫。
+ * 邊以平行陣列 u[], v[], weight[] 表示 (與模擬器產生的整數權重相同)，
+ * 回傳被選中的邊索引 (依加入順序)。需要動畫時傳入 StepLog，由 UI 事後重播。
+ */
+public final class MstAlgorithms {
+
+    private MstAlgorithms() {
+    }
+
+    /**
+     * Kruskal：把 (權重, 索引) 打包成 long 後排序，權重相同時保持原本的邊順序。
+     * @param log 記錄 ADD_EDGE 步驟，null 表示不記錄
+     */
+    public static int[] kruskal(int numNodes, int[] u, int[] v, int[] weight, int edgeCount, StepLog log) {
+        long[] keys = new long[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            keys[e] = ((long) weight[e] << 32) | e;
+        }
+        Arrays.sort(keys);
+
+        DisjointSet sets = new DisjointSet(numNodes);
+        int[] chosen = new int[Math.max(0, numNodes - 1)];
+        int count = 0;
+        for (int i = 0; i < edgeCount && count < chosen.length; i++) {
+            int e = (int) keys[i];
+            if (sets.union(u[e], v[e])) {
+                chosen[count++] = e;
+                if (log != null) log.add(StepLog.ADD_EDGE, e, -1);
+            }
+        }
+        return Arrays.copyOf(chosen, count);
+    }
+
+    /**
+     * Prim：依邊密度自動選擇實作。稠密圖 (E * log2(V) >= V^2) 使用 O(V^2) 的陣列掃描，
+     * 其餘使用索引堆積 O(E log V)。兩者以 (權重, 邊索引) 比較，得到同一棵樹。
+     * 只涵蓋 start 所在的連通塊。
+     * @param log 記錄 ADD_EDGE 步驟 (b 為新加入的頂點)，null 表示不記錄
+     */
+    public static int[] prim(int numNodes, int[] u, int[] v, int[] weight, int edgeCount,
+                             int start, StepLog log) {
+        int log2 = 32 - Integer.numberOfLeadingZeros(Math.max(1, numNodes));
+        if ((long) edgeCount * log2 >= (long) numNodes * numNodes) {
+            return primDense(numNodes, u, v, weight, edgeCount, start, log);
+        }
+        return primHeap(numNodes, u, v, weight, edgeCount, start, log);
+    }
+
+    /**
+     * 積極 (eager) Prim：每個樹外頂點在索引堆積中只佔一個位置，鍵為連到樹的最輕邊，
+     * 發現更輕的邊時直接 decrease-key，堆積大小不超過 V。
+     */
+    public static int[] primHeap(int numNodes, int[] u, int[] v, int[] weight, int edgeCount,
+                                 int start, StepLog log) {
+        Adjacency adj = new Adjacency(numNodes, u, v, edgeCount);
+        boolean[] inTree = new boolean[numNodes];
+        VertexHeap heap = new VertexHeap(numNodes);
+        int[] chosen = new int[Math.max(0, numNodes - 1)];
+        int count = 0;
+
+        int next = start;
+        while (true) {
+            inTree[next] = true;
+            for (int a = adj.offsets[next]; a < adj.offsets[next + 1]; a++) {
+                int e = adj.incident[a];
+                int other = u[e] == next ? v[e] : u[e];
+                if (!inTree[other]) heap.insertOrDecrease(other, key(weight, e));
+            }
+            if (heap.isEmpty()) break;
+            int e = (int) heap.peekKey();
+            next = heap.poll();
+            chosen[count++] = e;
+            if (log != null) log.add(StepLog.ADD_EDGE, e, next);
+        }
+        return Arrays.copyOf(chosen, count);
+    }
+
+    /**
+     * 稠密圖用的 Prim：以陣列 best[] 保存每個樹外頂點的最輕邊，每輪線性掃描找最小值。
+     * 不需要堆積，總成本 O(V^2 + E)，在 E 接近 V^2 時比堆積版本快。
+     */
+    public static int[] primDense(int numNodes, int[] u, int[] v, int[] weight, int edgeCount,
+                                  int start, StepLog log) {
+        Adjacency adj = new Adjacency(numNodes, u, v, edgeCount);
+        boolean[] inTree = new boolean[numNodes];
+        long[] best = new long[numNodes];
+        Arrays.fill(best, Long.MAX_VALUE);
+        int[] chosen = new int[Math.max(0, numNodes - 1)];
+        int count = 0;
+
+        int next = start;
+        while (true) {
+            inTree[next] = true;
+            for (int a = adj.offsets[next]; a < adj.offsets[next + 1]; a++) {
+                int e = adj.incident[a];
+                int other = u[e] == next ? v[e] : u[e];
+                long k = key(weight, e);
+                if (!inTree[other] && k < best[other]) best[other] = k;
+            }
+            next = -1;
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < numNodes; i++) {
+                if (!inTree[i] && best[i] < min) {
+                    min = best[i];
+                    next = i;
+                }
+            }
+            if (next < 0) break;
+            int e = (int) min;
+            chosen[count++] = e;
+            if (log != null) log.add(StepLog.ADD_EDGE, e, next);
+        }
+        return Arrays.copyOf(chosen, count);
+    }
+
+    private static long key(int[] weight, int e) {
+        return ((long) weight[e] << 32) | e;
+    }
+
+    // 每個頂點的鄰接邊索引 (CSR)，無向：每條邊在兩端各出現一次
+    private static final class Adjacency {
+        final int[] offsets;
+        final int[] incident;
+
+        Adjacency(int numNodes, int[] u, int[] v, int edgeCount) {
+            offsets = new int[numNodes + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[u[e] + 1]++;
+                offsets[v[e] + 1]++;
+            }
+            for (int i = 0; i < numNodes; i++) offsets[i + 1] += offsets[i];
+            incident = new int[offsets[numNodes]];
+            int[] cursor = Arrays.copyOf(offsets, numNodes);
+            for (int e = 0; e < edgeCount; e++) {
+                incident[cursor[u[e]]++] = e;
+                incident[cursor[v[e]]++] = e;
+            }
+        }
+    }
+
+    // 以頂點 ID 為索引的二元最小堆積，支援 decrease-key；pos[v] 為 -1 表示不在堆積中
+    private static final class VertexHeap {
+        private final int[] heap;
+        private final int[] pos;
+        private final long[] keys;
+        private int size;
+
+        VertexHeap(int capacity) {
+            heap = new int[capacity];
+            pos = new int[capacity];
+            keys = new long[capacity];
+            Arrays.fill(pos, -1);
+        }
+
+        boolean isEmpty() { return size == 0; }
+
+        long peekKey() { return keys[heap[0]]; }
+
+        void insertOrDecrease(int vertex, long key) {
+            int i = pos[vertex];
+            if (i < 0) {
+                i = size++;
+            } else if (key >= keys[vertex]) {
+                return;
+            }
+            keys[vertex] = key;
+            siftUp(vertex, i);
+        }
+
+        int poll() {
+            int top = heap[0];
+            pos[top] = -1;
+            int last = heap[--size];
+            if (size > 0) siftDown(last, 0);
+            return top;
+        }
+
+        private void siftUp(int vertex, int i) {
+            long key = keys[vertex];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                int p = heap[parent];
+                if (keys[p] <= key) break;
+                heap[i] = p;
+                pos[p] = i;
+                i = parent;
+            }
+            heap[i] = vertex;
+            pos[vertex] = i;
+        }
+
+        private void siftDown(int vertex, int i) {
+            long key = keys[vertex];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) child++;
+                int c = heap[child];
+                if (keys[c] >= key) break;
+                heap[i] = c;
+                pos[c] = i;
+                i = child;
+            }
+            heap[i] = vertex;
+            pos[vertex] = i;
+        }
+    }
+}
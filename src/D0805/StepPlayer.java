@@ -0,0 +1,74 @@
+package D0805;
+
+import GraphCore.StepLog;
+
+import javax.swing.Timer;
+
+/**
+ * 在 EDT 上以 Swing Timer 重播 StepLog。
+ * 演算法已經先在背景 (或直接) 全速跑完，這裡只負責顯示：
+ * 每次 Timer 觸發套用 stepsPerTick 個步驟，再呼叫一次 flush，
+ * 同一格畫面中的多個步驟只會造成一次重繪與一次文字輸出。
+ */
+class StepPlayer {
+
+    interface Sink {
+        void apply(int type, int a, int b); // 套用單一步驟，只更新狀態
+        void flush();                       // 每格畫面結束時呼叫一次 (重繪、輸出文字)
+    }
+
+    private final StepLog log;
+    private final int stepsPerTick;
+    private final Sink sink;
+    private final Runnable onFinished;
+    private final Timer timer;
+    private int position;
+    private boolean finished;
+
+    /**
+     * @param delayMs 每格畫面的間隔
+     * @param stepsPerTick 每格畫面套用的步驟數
+     * @param onFinished 全部重播完畢後呼叫，可為 null
+     */
+    StepPlayer(StepLog log, int delayMs, int stepsPerTick, Sink sink, Runnable onFinished) {
+        this.log = log;
+        this.stepsPerTick = Math.max(1, stepsPerTick);
+        this.sink = sink;
+        this.onFinished = onFinished;
+        this.timer = new Timer(delayMs, e -> advance(this.stepsPerTick));
+    }
+
+    void start() {
+        if (position >= log.size()) {
+            finish();
+            return;
+        }
+        timer.start();
+    }
+
+    void stop() {
+        timer.stop();
+    }
+
+    /**
+     * 立即套用剩下的所有步驟 (只重繪一次)。
+     */
+    void finish() {
+        advance(log.size() - position);
+    }
+
+    boolean isRunning() { return timer.isRunning(); }
+
+    private void advance(int steps) {
+        int end = Math.min(log.size(), position + steps);
+        for (; position < end; position++) {
+            sink.apply(log.type(position), log.a(position), log.b(position));
+        }
+        sink.flush();
+        if (position >= log.size() && !finished) {
+            finished = true;
+            timer.stop();
+            if (onFinished != null) onFinished.run();
+        }
+    }
+}
@@ -4,6 +4,11 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.*;
 import java.util.List;
+
+import GraphCore.ArticulationBaseline;
+import GraphCore.Biconnectivity;
+import GraphCore.CsrGraph;
+import GraphCore.GraphGenerator;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -18,6 +23,8 @@ public class ArticulationPointComparison extends JFrame {
     private static final int EDGE_STEP_FACTOR = 1; // 邊數增量因子
     private static final int RUNS_PER_TEST = 5; // 平均多次運行以減少隨機誤差
 
+    private final Random seeds = new Random(); // 每次產生圖都使用新的 seed
+
     public ArticulationPointComparison() {
         setTitle("Articulation Point Algorithm Comparison");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -45,7 +52,7 @@ public class ArticulationPointComparison extends JFrame {
 
                 // 多次運行取平均值
                 for (int run = 0; run < RUNS_PER_TEST; run++) {
-                    List<List<Integer>> graph = generateRandomConnectedGraph(vertices, edges);
+                    CsrGraph graph = generateRandomConnectedGraph(vertices, edges);
                     simpleTime += measureSimpleMethod(graph);
                     fastTime += measureTarjanMethod(graph);
                 }
@@ -102,125 +109,25 @@ public class ArticulationPointComparison extends JFrame {
         setVisible(true);
     }
 
-    // 生成隨機連通圖
-    private List<List<Integer>> generateRandomConnectedGraph(int vertices, int edges) {
-        List<List<Integer>> graph = new ArrayList<>();
-        for (int i = 0; i < vertices; i++) {
-            graph.add(new ArrayList<>());
-        }
-
-        // 生成最小生成樹確保連通
-        Random rand = new Random();
-        List<Integer> verticesList = new ArrayList<>();
-        for (int i = 0; i < vertices; i++) verticesList.add(i);
-        Collections.shuffle(verticesList);
-
-        for (int i = 1; i < vertices; i++) {
-            int u = verticesList.get(i);
-            int v = verticesList.get(rand.nextInt(i));
-            graph.get(u).add(v);
-            graph.get(v).add(u);
-        }
-
-        // 添加額外的邊
-        int currentEdges = vertices - 1;
-        while (currentEdges < edges) {
-            int u = rand.nextInt(vertices);
-            int v = rand.nextInt(vertices);
-            if (u != v && !graph.get(u).contains(v)) {
-                graph.get(u).add(v);
-                graph.get(v).add(u);
-                currentEdges++;
-            }
-        }
-
-        return graph;
+    // 生成隨機連通圖（隨機生成樹加上不重複的隨機邊）
+    private CsrGraph generateRandomConnectedGraph(int vertices, int edges) {
+        return new GraphGenerator(seeds.nextLong()).connectedRandom(vertices, edges, false).toCsrGraph();
     }
 
-    // 普通方法：移除每個頂點並檢查連通性
-    private long measureSimpleMethod(List<List<Integer>> graph) {
+    // 普通方法：移除每個頂點並檢查連通性（GraphCore.ArticulationBaseline，跳過被移除的頂點而不複製圖，平行檢查）
+    private long measureSimpleMethod(CsrGraph graph) {
         long startTime = System.nanoTime();
-        int vertices = graph.size();
-        for (int v = 0; v < vertices; v++) {
-            // 複製圖並移除頂點 v
-            List<List<Integer>> tempGraph = new ArrayList<>();
-            for (int i = 0; i < vertices; i++) {
-                if (i != v) {
-                    List<Integer> neighbors = new ArrayList<>(graph.get(i));
-                    int finalV = v;
-                    neighbors.removeIf(n -> n == finalV);
-                    tempGraph.add(neighbors);
-                } else {
-                    tempGraph.add(new ArrayList<>());
-                }
-            }
-
-            // 檢查連通性
-            boolean[] visited = new boolean[vertices];
-            dfs(tempGraph, 0, v, visited);
-            boolean isConnected = true;
-            for (int i = 0; i < vertices; i++) {
-                if (i != v && !visited[i]) {
-                    isConnected = false;
-                    break;
-                }
-            }
-        }
+        ArticulationBaseline.find(graph);
         return System.nanoTime() - startTime;
     }
 
-    private void dfs(List<List<Integer>> graph, int u, int skipVertex, boolean[] visited) {
-        if (u == skipVertex) return;
-        visited[u] = true;
-        for (int v : graph.get(u)) {
-            if (!visited[v] && v != skipVertex) {
-                dfs(graph, v, skipVertex, visited);
-            }
-        }
-    }
-
-    // 快速方法：Tarjan 演算法
-    private long measureTarjanMethod(List<List<Integer>> graph) {
+    // 快速方法：Tarjan 演算法（GraphCore.Biconnectivity，迭代版本，一次求出關節點、橋與雙連通元件）
+    private long measureTarjanMethod(CsrGraph graph) {
         long startTime = System.nanoTime();
-        int vertices = graph.size();
-        int[] disc = new int[vertices];
-        int[] low = new int[vertices];
-        int[] parent = new int[vertices];
-        boolean[] ap = new boolean[vertices];
-        Arrays.fill(disc, -1);
-        Arrays.fill(parent, -1);
-        int[] time = {0};
-
-        for (int u = 0; u < vertices; u++) {
-            if (disc[u] == -1) {
-                tarjanDFS(u, graph, disc, low, parent, ap, time);
-            }
-        }
+        new Biconnectivity(graph);
         return System.nanoTime() - startTime;
     }
 
-    private void tarjanDFS(int u, List<List<Integer>> graph, int[] disc, int[] low, int[] parent, boolean[] ap, int[] time) {
-        int children = 0;
-        disc[u] = low[u] = ++time[0];
-        for (int v : graph.get(u)) {
-            if (disc[v] == -1) {
-                children++;
-                parent[v] = u;
-                tarjanDFS(v, graph, disc, low, parent, ap, time);
-                low[u] = Math.min(low[u], low[v]);
-
-                if (parent[u] == -1 && children > 1) {
-                    ap[u] = true;
-                }
-                if (parent[u] != -1 && low[v] >= disc[u]) {
-                    ap[u] = true;
-                }
-            } else if (v != parent[u]) {
-                low[u] = Math.min(low[u], disc[v]);
-            }
-        }
-    }
-
     public static void main(String[] args) {
         SwingUtilities.invokeLater(ArticulationPointComparison::new);
     }
@@ -0,0 +1,41 @@
+package D0812;// AllPairsShortestPaths.java
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 所有點對最短路徑結果的共同介面，由 FloydWarshall、BlockedFloydWarshall
+ * 與從檔案開啟的 DistanceOracle 實作。
+ */
+public interface AllPairsShortestPaths {
+
+    int getNumNodes();
+
+    /**
+     * @return 從 u 到 v 的最短距離，如果不可達則為無窮大
+     */
+    double getShortestDistance(int u, int v);
+
+    /**
+     * @return 從 u 到 v 的路徑上 u 之後的下一個節點 ID，-1 表示不可達
+     */
+    int getNextHop(int u, int v);
+
+    /**
+     * 重建從起點 u 到終點 v 的最短路徑。
+     * @return 由 Node 物件組成的路徑列表，如果不可達則為 null
+     */
+    default List<Node> getPath(int u, int v, Graph graph) {
+        if (getNextHop(u, v) == -1) {
+            return null; // 不可達
+        }
+
+        List<Node> path = new ArrayList<>();
+        int current = u;
+        while (current != v) {
+            path.add(graph.getNodeById(current));
+            current = getNextHop(current, v);
+        }
+        path.add(graph.getNodeById(v));
+        return path;
+    }
+}
@@ -0,0 +1,83 @@
+package D0812;// BatchDijkstra.java
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 對多個起點同時計算最短路徑樹。
+ * 起點清單以 ForkJoinPool 遞迴切分 (work-stealing)，每條執行緒各自持有一個
+ * FastDijkstra，工作陣列在同一條執行緒的多次計算之間重複使用，不會為每個起點重新配置。
+ */
+public class BatchDijkstra {
+
+    /**
+     * 接收單一起點的計算結果。會在工作執行緒上呼叫，tree 的內容在方法返回後就會被下一個起點覆寫，
+     * 需要保留的資料必須自行複製。起點 ID 可由 tree.getSource() 取得。
+     * @param sourceIndex 起點在輸入陣列中的位置
+     */
+    public interface TreeConsumer {
+        void accept(int sourceIndex, FastDijkstra tree);
+    }
+
+    private static final int SEQUENTIAL_THRESHOLD = 4; // 每個任務至少處理的起點數
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<FastDijkstra> engines;
+
+    public BatchDijkstra(Graph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public BatchDijkstra(Graph graph, ForkJoinPool pool) {
+        this.pool = pool;
+        this.engines = ThreadLocal.withInitial(() -> new FastDijkstra(graph));
+    }
+
+    /**
+     * 平行計算每個起點的最短路徑樹，並將結果交給 consumer。
+     * @param sourceIds 起點 ID 陣列
+     * @param consumer 結果處理者，必須是執行緒安全的
+     */
+    public void forEachTree(int[] sourceIds, TreeConsumer consumer) {
+        pool.invoke(new SourceRangeTask(sourceIds, 0, sourceIds.length, consumer));
+    }
+
+    /**
+     * 平行計算每個起點到所有節點的最短距離。
+     * @return distances[i][v] 為 sourceIds[i] 到 v 的距離，不可達為無窮大
+     */
+    public double[][] computeDistances(int[] sourceIds) {
+        double[][] distances = new double[sourceIds.length][];
+        forEachTree(sourceIds, (i, tree) -> distances[i] = tree.distances().clone());
+        return distances;
+    }
+
+    private class SourceRangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sourceIds;
+        private final int from, to;
+        private final TreeConsumer consumer;
+
+        SourceRangeTask(int[] sourceIds, int from, int to, TreeConsumer consumer) {
+            this.sourceIds = sourceIds;
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                FastDijkstra engine = engines.get();
+                for (int i = from; i < to; i++) {
+                    engine.run(sourceIds[i]);
+                    consumer.accept(i, engine);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SourceRangeTask(sourceIds, from, mid, consumer),
+                    new SourceRangeTask(sourceIds, mid, to, consumer));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package D0812;// BlockedFloydWarshall.java
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 分塊 (tiled) 版本的 Floyd-Warshall 演算法，結果與 FloydWarshall 相同。
+ * 距離與路徑矩陣存放在一維 row-major 陣列中，每一輪依序處理：
+ * 1. 對角線區塊；2. 與對角線同列/同欄的區塊；3. 其餘彼此獨立的區塊。
+ * 第 2、3 階段的區塊互不相依，交給 ForkJoinPool 平行處理。
+ */
+public class BlockedFloydWarshall implements AllPairsShortestPaths {
+
+    private static final int DEFAULT_BLOCK_SIZE = 64; // 64 x 64 個 double = 32KB，約等於 L1 快取大小
+
+    private final double[] dist; // dist[i * numNodes + j] 為 i 到 j 的最短距離
+    private final int[] next;    // next[i * numNodes + j] 為 i 到 j 路徑上的下一個節點，-1 表示不可達
+    private final int numNodes;
+    private final int blockSize;
+
+    public BlockedFloydWarshall(Graph graph) {
+        this(graph, DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph 要計算的圖
+     * @param blockSize 區塊邊長
+     * @param pool 執行第 2、3 階段的執行緒池
+     */
+    public BlockedFloydWarshall(Graph graph, int blockSize, ForkJoinPool pool) {
+        this.numNodes = graph.getNodes().size();
+        this.blockSize = blockSize;
+        this.dist = new double[numNodes * numNodes];
+        this.next = new int[numNodes * numNodes];
+
+        // 1. 初始化距離和路徑矩陣
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(next, -1);
+        for (int i = 0; i < numNodes; i++) {
+            dist[i * numNodes + i] = 0;
+            next[i * numNodes + i] = i;
+        }
+        for (Edge edge : graph.getEdges()) {
+            int u = edge.getSource().getId();
+            int v = edge.getDestination().getId();
+            double weight = edge.getWeight();
+            dist[u * numNodes + v] = weight;
+            dist[v * numNodes + u] = weight; // 無向圖
+            next[u * numNodes + v] = v;
+            next[v * numNodes + u] = u;
+        }
+
+        // 2. 分塊計算
+        int numBlocks = (numNodes + blockSize - 1) / blockSize;
+        for (int kb = 0; kb < numBlocks; kb++) {
+            final int k0 = kb * blockSize;
+            final int k1 = Math.min(k0 + blockSize, numNodes);
+
+            // 第 1 階段：對角線區塊只依賴自己
+            relaxTile(k0, k1, k0, k1, k0, k1);
+
+            // 第 2 階段：同列與同欄的區塊只依賴對角線區塊
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int b = 0; b < numBlocks; b++) {
+                if (b == kb) continue;
+                final int b0 = b * blockSize;
+                final int b1 = Math.min(b0 + blockSize, numNodes);
+                tasks.add(ForkJoinTask.adapt(() -> relaxTile(k0, k1, b0, b1, k0, k1)));
+                tasks.add(ForkJoinTask.adapt(() -> relaxTile(b0, b1, k0, k1, k0, k1)));
+            }
+            runInParallel(pool, tasks);
+
+            // 第 3 階段：其餘區塊只依賴第 2 階段的結果，彼此完全獨立
+            tasks = new ArrayList<>();
+            for (int ib = 0; ib < numBlocks; ib++) {
+                if (ib == kb) continue;
+                final int i0 = ib * blockSize;
+                final int i1 = Math.min(i0 + blockSize, numNodes);
+                for (int jb = 0; jb < numBlocks; jb++) {
+                    if (jb == kb) continue;
+                    final int j0 = jb * blockSize;
+                    final int j1 = Math.min(j0 + blockSize, numNodes);
+                    tasks.add(ForkJoinTask.adapt(() -> relaxTile(i0, i1, j0, j1, k0, k1)));
+                }
+            }
+            runInParallel(pool, tasks);
+        }
+    }
+
+    /**
+     * 以 [k0, k1) 內的節點作為中介點，更新 [i0, i1) x [j0, j1) 區塊。
+     * 無窮大加上任何權重仍是無窮大，比較必定失敗，因此不需要額外檢查。
+     */
+    private void relaxTile(int i0, int i1, int j0, int j1, int k0, int k1) {
+        final int n = numNodes;
+        for (int k = k0; k < k1; k++) {
+            int kRow = k * n;
+            for (int i = i0; i < i1; i++) {
+                int iRow = i * n;
+                double dik = dist[iRow + k];
+                if (dik == Double.POSITIVE_INFINITY) continue;
+                int nik = next[iRow + k];
+                for (int j = j0; j < j1; j++) {
+                    double candidate = dik + dist[kRow + j];
+                    if (candidate < dist[iRow + j]) {
+                        dist[iRow + j] = candidate;
+                        next[iRow + j] = nik;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void runInParallel(ForkJoinPool pool, List<ForkJoinTask<?>> tasks) {
+        if (tasks.isEmpty()) return;
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    public int getBlockSize() { return blockSize; }
+
+    @Override
+    public int getNumNodes() { return numNodes; }
+
+    /**
+     * 獲取指定起點和終點的最短距離。
+     * @param u 起點 ID
+     * @param v 終點 ID
+     * @return 最短距離，如果不可達則為無窮大
+     */
+    @Override
+    public double getShortestDistance(int u, int v) {
+        return dist[u * numNodes + v];
+    }
+
+    @Override
+    public int getNextHop(int u, int v) {
+        return next[u * numNodes + v];
+    }
+}
@@ -0,0 +1,377 @@
+package D0812;// ContractionHierarchy.java
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * Contraction Hierarchies：針對不會變動的圖做一次前處理，之後每次兩點查詢只需要
+ * 在「往上」的邊上做很小範圍的雙向 Dijkstra。
+ *
+ * 前處理：依照邊差 (新增捷徑數 - 移除的邊數)、已收縮的鄰居數與階層深度決定收縮順序，
+ * 收縮節點 v 時，若鄰居 u、w 之間找不到不經過 v 且不比 u-v-w 更長的見證路徑，
+ * 就加入一條 u-w 捷徑並記錄中間節點 v，以便查詢後展開成原始路徑。
+ * 剩下的圖過於稠密 (例如隨機產生、沒有階層結構的圖) 時停止收縮，其餘節點保留為核心。
+ * 查詢：從起點與終點分別只沿著排名較高的方向 (以及核心內的邊) 搜尋，兩邊相遇處即為最短路徑。
+ */
+public class ContractionHierarchy {
+
+    private static final int WITNESS_SETTLE_LIMIT = 50;    // 實際收縮時見證搜尋最多取出的節點數，超過就直接加捷徑
+    private static final int SIMULATION_SETTLE_LIMIT = 10; // 估算優先值時只需要粗略的捷徑數，用較小的上限
+    private static final int CORE_DEGREE_LIMIT = 32;       // 待收縮節點的鄰居超過此數時停止收縮，其餘節點成為核心
+
+    private final Graph graph;
+    private final int numNodes;
+    private final int[] rank;       // rank[v] 為 v 的收縮順序，越大越晚收縮
+    private int shortcutCount;
+    private int coreSize;           // 未收縮的核心節點數，核心內查詢退化為一般的雙向 Dijkstra
+
+    // 向上的邊 (CSR 格式)：upOffsets[u]..upOffsets[u+1] 為 u 連到排名較高節點的邊 (核心節點則為核心內的邊)
+    private int[] upOffsets;
+    private int[] upTargets;
+    private double[] upWeights;
+    private int[] upMiddles;        // 捷徑的中間節點，-1 表示原始邊
+
+    // 查詢用的工作陣列
+    private final double[] distF, distB;
+    private final int[] predF, predB;
+    private final int[] stampF, stampB;
+    private final IndexedMinHeap heapF, heapB;
+    private int query;
+
+    /**
+     * 建立並前處理 Contraction Hierarchy。
+     * @param graph 要前處理的圖，前處理後圖不應再變動
+     */
+    public ContractionHierarchy(Graph graph) {
+        this.graph = graph;
+        this.numNodes = graph.getNodeIdBound();
+        this.rank = new int[numNodes];
+        new Builder().build();
+
+        this.distF = new double[numNodes];
+        this.distB = new double[numNodes];
+        this.predF = new int[numNodes];
+        this.predB = new int[numNodes];
+        this.stampF = new int[numNodes];
+        this.stampB = new int[numNodes];
+        this.heapF = new IndexedMinHeap(numNodes);
+        this.heapB = new IndexedMinHeap(numNodes);
+    }
+
+    public int getShortcutCount() { return shortcutCount; }
+    public int getCoreSize() { return coreSize; }
+    public int getRank(int id) { return rank[id]; }
+
+    /**
+     * 查詢兩點間最短路徑。
+     * @return 距離、路徑 (與 Dijkstra.getPath 相同的 List&lt;Node&gt; 形式，不可達時為 null) 與處理節點數
+     */
+    public PointToPointSearch.Result query(int sourceId, int targetId) {
+        query++;
+        if (query == Integer.MAX_VALUE) {
+            Arrays.fill(stampF, 0);
+            Arrays.fill(stampB, 0);
+            query = 1;
+        }
+        reach(distF, predF, stampF, sourceId, 0, -1);
+        reach(distB, predB, stampB, targetId, 0, -1);
+        heapF.insertOrDecrease(sourceId, 0);
+        heapB.insertOrDecrease(targetId, 0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        int settled = 0;
+        while (true) {
+            boolean forwardDone = heapF.isEmpty() || heapF.peekKey() >= best;
+            boolean backwardDone = heapB.isEmpty() || heapB.peekKey() >= best;
+            if (forwardDone && backwardDone) break;
+
+            boolean forward = !forwardDone && (backwardDone || heapF.peekKey() <= heapB.peekKey());
+            IndexedMinHeap heap = forward ? heapF : heapB;
+            double[] dist = forward ? distF : distB;
+            int[] pred = forward ? predF : predB;
+            int[] stamp = forward ? stampF : stampB;
+            double[] otherDist = forward ? distB : distF;
+            int[] otherStamp = forward ? stampB : stampF;
+
+            int u = heap.poll();
+            settled++;
+            double du = dist[u];
+            if (otherStamp[u] == query && du + otherDist[u] < best) {
+                best = du + otherDist[u];
+                meet = u;
+            }
+            for (int a = upOffsets[u]; a < upOffsets[u + 1]; a++) {
+                int v = upTargets[a];
+                double nd = du + upWeights[a];
+                if (stamp[v] != query || nd < dist[v]) {
+                    reach(dist, pred, stamp, v, nd, u);
+                    heap.insertOrDecrease(v, nd);
+                }
+            }
+        }
+        heapF.clear();
+        heapB.clear();
+        if (meet < 0) return new PointToPointSearch.Result(Double.POSITIVE_INFINITY, null, settled);
+
+        // 兩段向上的路徑接起來後，再把每條捷徑展開成原始的邊
+        LinkedList<Integer> upPath = new LinkedList<>();
+        for (int v = meet; v >= 0; v = predF[v]) upPath.addFirst(v);
+        for (int v = predB[meet]; v >= 0; v = predB[v]) upPath.addLast(v);
+
+        LinkedList<Node> path = new LinkedList<>();
+        Integer previous = null;
+        for (int v : upPath) {
+            if (previous != null) unpack(previous, v, path);
+            path.add(graph.getNodeById(v));
+            previous = v;
+        }
+        return new PointToPointSearch.Result(best, path, settled);
+    }
+
+    private void reach(double[] dist, int[] pred, int[] stamp, int v, double d, int p) {
+        stamp[v] = query;
+        dist[v] = d;
+        pred[v] = p;
+    }
+
+    /**
+     * 將 u-w 之間的捷徑展開，依序把中間節點 (不含 u、w) 加到 path 尾端。
+     * 以明確的堆疊代替遞迴，避免很深的捷徑造成 StackOverflowError。
+     */
+    private void unpack(int u, int w, LinkedList<Node> path) {
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = u;
+        stack[top++] = w;
+        while (top > 0) {
+            int b = stack[--top];
+            int a = stack[--top];
+            int middle = middleOf(a, b);
+            if (middle < 0) {
+                if (a != u) path.add(graph.getNodeById(a));
+                continue;
+            }
+            if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length << 1);
+            // 先處理 a-middle，再處理 middle-b
+            stack[top++] = middle;
+            stack[top++] = b;
+            stack[top++] = a;
+            stack[top++] = middle;
+        }
+    }
+
+    // 邊一律存在排名較低的端點上
+    private int middleOf(int a, int b) {
+        int low = rank[a] < rank[b] ? a : b;
+        int high = low == a ? b : a;
+        for (int i = upOffsets[low]; i < upOffsets[low + 1]; i++) {
+            if (upTargets[i] == high) return upMiddles[i];
+        }
+        throw new IllegalStateException("找不到邊 " + a + "-" + b);
+    }
+
+    /**
+     * 前處理用的可變動鄰接結構與見證搜尋。
+     */
+    private class Builder {
+        private final int[][] adjTargets = new int[numNodes][];
+        private final double[][] adjWeights = new double[numNodes][];
+        private final int[][] adjMiddles = new int[numNodes][];
+        private final int[] degree = new int[numNodes];
+        private final boolean[] contracted = new boolean[numNodes];
+        private final int[] contractedNeighbors = new int[numNodes];
+        private final int[] level = new int[numNodes]; // 節點在階層中的深度估計，讓收縮順序在圖上分布平均
+
+        // 見證搜尋的工作陣列
+        private final double[] witnessDist = new double[numNodes];
+        private final int[] witnessStamp = new int[numNodes];
+        private final int[] targetStamp = new int[numNodes];
+        private final IndexedMinHeap witnessHeap = new IndexedMinHeap(numNodes);
+        private int witnessRound;
+
+        void build() {
+            for (int u = 0; u < numNodes; u++) {
+                int d = graph.getDegree(u);
+                adjTargets[u] = new int[Math.max(d, 1)];
+                adjWeights[u] = new double[Math.max(d, 1)];
+                adjMiddles[u] = new int[Math.max(d, 1)];
+                for (int i = 0; i < d; i++) {
+                    adjTargets[u][i] = graph.getNeighborId(u, i);
+                    adjWeights[u][i] = graph.getNeighborWeight(u, i);
+                    adjMiddles[u][i] = -1;
+                }
+                degree[u] = d;
+            }
+
+            // 依照優先值收縮；取出後重新計算，如果已經不是最小就放回去 (lazy update)
+            IndexedMinHeap order = new IndexedMinHeap(numNodes);
+            for (int v = 0; v < numNodes; v++) {
+                order.insertOrDecrease(v, priority(v));
+            }
+            int nextRank = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                double p = priority(v);
+                if (!order.isEmpty() && p > order.peekKey()) {
+                    order.insertOrDecrease(v, p);
+                    continue;
+                }
+                if (degree[v] > CORE_DEGREE_LIMIT) {
+                    // 剩下的圖已經很稠密，再收縮只會產生大量捷徑，保留為核心
+                    order.insertOrDecrease(v, p);
+                    break;
+                }
+                contract(v, true);
+                contracted[v] = true;
+                rank[v] = nextRank++;
+                // 從鄰居的串列移除 v，讓之後的搜尋不必再掃過已收縮的節點；
+                // v 自己的串列從此不再變動，剩下的正好是往上的邊。鄰居的優先值也立即更新
+                for (int i = 0; i < degree[v]; i++) {
+                    int u = adjTargets[v][i];
+                    removeArc(u, v);
+                    contractedNeighbors[u]++;
+                    level[u] = Math.max(level[u], level[v] + 1);
+                    order.insertOrUpdate(u, priority(u));
+                }
+            }
+            // 核心節點排在最高層，彼此之間的邊保留在兩端的串列中
+            while (!order.isEmpty()) {
+                rank[order.poll()] = nextRank++;
+                coreSize++;
+            }
+            buildUpwardGraph();
+        }
+
+        private double priority(int v) {
+            int shortcuts = contract(v, false);
+            int activeDegree = 0;
+            for (int i = 0; i < degree[v]; i++) {
+                if (!contracted[adjTargets[v][i]]) activeDegree++;
+            }
+            return shortcuts - activeDegree + contractedNeighbors[v] + level[v];
+        }
+
+        /**
+         * 模擬或實際收縮節點 v。
+         * @param apply 為 true 時實際加入捷徑
+         * @return 需要的捷徑數量
+         */
+        private int contract(int v, boolean apply) {
+            int shortcuts = 0;
+            int dv = degree[v];
+            for (int i = 0; i < dv; i++) {
+                int u = adjTargets[v][i];
+                if (contracted[u]) continue;
+                double wu = adjWeights[v][i];
+
+                // 這一輪要檢查的終點為 ID 大於 u 的鄰居，每一對只需檢查一次
+                witnessRound++;
+                double maxVia = 0;
+                int targets = 0;
+                for (int j = 0; j < dv; j++) {
+                    int w = adjTargets[v][j];
+                    if (w > u && !contracted[w]) {
+                        maxVia = Math.max(maxVia, wu + adjWeights[v][j]);
+                        targetStamp[w] = witnessRound;
+                        targets++;
+                    }
+                }
+                if (targets == 0) continue;
+                witnessSearch(u, v, maxVia, targets, apply ? WITNESS_SETTLE_LIMIT : SIMULATION_SETTLE_LIMIT);
+
+                for (int j = 0; j < dv; j++) {
+                    int w = adjTargets[v][j];
+                    if (w <= u || contracted[w]) continue;
+                    double via = wu + adjWeights[v][j];
+                    if (witnessStamp[w] == witnessRound && witnessDist[w] <= via) continue;
+                    shortcuts++;
+                    if (apply) {
+                        addOrImproveArc(u, w, via, v);
+                        addOrImproveArc(w, u, via, v);
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        // 從 u 出發、不經過 v 與已收縮節點的有限範圍 Dijkstra，所有終點都確定後即停止
+        private void witnessSearch(int u, int v, double maxDist, int targets, int settleLimit) {
+            witnessHeap.clear();
+            witnessStamp[u] = witnessRound;
+            witnessDist[u] = 0;
+            witnessHeap.insertOrDecrease(u, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < settleLimit) {
+                if (witnessHeap.peekKey() > maxDist) break;
+                int x = witnessHeap.poll();
+                settled++;
+                if (targetStamp[x] == witnessRound && --targets == 0) break;
+                double dx = witnessDist[x];
+                for (int i = 0; i < degree[x]; i++) {
+                    int y = adjTargets[x][i];
+                    if (y == v || contracted[y]) continue;
+                    double nd = dx + adjWeights[x][i];
+                    if (witnessStamp[y] != witnessRound || nd < witnessDist[y]) {
+                        witnessStamp[y] = witnessRound;
+                        witnessDist[y] = nd;
+                        witnessHeap.insertOrDecrease(y, nd);
+                    }
+                }
+            }
+            witnessHeap.clear();
+        }
+
+        private void addOrImproveArc(int u, int w, double weight, int middle) {
+            for (int i = 0; i < degree[u]; i++) {
+                if (adjTargets[u][i] == w) {
+                    if (weight < adjWeights[u][i]) {
+                        adjWeights[u][i] = weight;
+                        adjMiddles[u][i] = middle;
+                    }
+                    return;
+                }
+            }
+            int d = degree[u];
+            if (d == adjTargets[u].length) {
+                adjTargets[u] = Arrays.copyOf(adjTargets[u], d << 1);
+                adjWeights[u] = Arrays.copyOf(adjWeights[u], d << 1);
+                adjMiddles[u] = Arrays.copyOf(adjMiddles[u], d << 1);
+            }
+            adjTargets[u][d] = w;
+            adjWeights[u][d] = weight;
+            adjMiddles[u][d] = middle;
+            degree[u] = d + 1;
+            if (u < w) shortcutCount++;
+        }
+
+        private void removeArc(int u, int w) {
+            int last = degree[u] - 1;
+            for (int i = 0; i <= last; i++) {
+                if (adjTargets[u][i] == w) {
+                    adjTargets[u][i] = adjTargets[u][last];
+                    adjWeights[u][i] = adjWeights[u][last];
+                    adjMiddles[u][i] = adjMiddles[u][last];
+                    degree[u] = last;
+                    return;
+                }
+            }
+        }
+
+        // 已收縮節點的串列只剩往上的邊，核心節點的串列只剩核心內的邊，直接整理成 CSR
+        private void buildUpwardGraph() {
+            upOffsets = new int[numNodes + 1];
+            for (int u = 0; u < numNodes; u++) {
+                upOffsets[u + 1] = upOffsets[u] + degree[u];
+            }
+            upTargets = new int[upOffsets[numNodes]];
+            upWeights = new double[upOffsets[numNodes]];
+            upMiddles = new int[upOffsets[numNodes]];
+            for (int u = 0; u < numNodes; u++) {
+                int a = upOffsets[u];
+                System.arraycopy(adjTargets[u], 0, upTargets, a, degree[u]);
+                System.arraycopy(adjWeights[u], 0, upWeights, a, degree[u]);
+                System.arraycopy(adjMiddles[u], 0, upMiddles, a, degree[u]);
+            }
+        }
+    }
+}
@@ -13,43 +13,27 @@ public class Dijkstra {
         }
     }
 
+    /**
+     * 計算從起點到所有節點的最短路徑。
+     * 實際計算交給 FastDijkstra (鄰接串列 + 索引堆積)，這裡只把結果轉成以 Node 為鍵的 Map。
+     */
     public static Result findShortestPaths(Graph graph, Node startNode) {
+        FastDijkstra engine = new FastDijkstra(graph);
+        engine.run(startNode.getId());
+        return toResult(graph, engine);
+    }
+
+    /**
+     * 將 FastDijkstra 的陣列結果轉換為 Result，供 getPath 與 GUI 使用。
+     */
+    public static Result toResult(Graph graph, FastDijkstra engine) {
         Map<Node, Double> distances = new HashMap<>();
         Map<Node, Node> predecessors = new HashMap<>();
-        PriorityQueue<Node> pq = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-        Set<Node> visited = new HashSet<>();
-
         for (Node node : graph.getNodes()) {
-            distances.put(node, Double.POSITIVE_INFINITY);
-            predecessors.put(node, null);
-        }
-        distances.put(startNode, 0.0);
-        pq.add(startNode);
-
-        while (!pq.isEmpty()) {
-            Node currentNode = pq.poll();
-
-            if (visited.contains(currentNode)) continue;
-            visited.add(currentNode);
-
-            for (Edge edge : graph.getEdges()) {
-                Node neighbor = null;
-                if (edge.getSource().equals(currentNode)) {
-                    neighbor = edge.getDestination();
-                } else if (edge.getDestination().equals(currentNode)) {
-                    neighbor = edge.getSource();
-                }
-
-                if (neighbor != null && !visited.contains(neighbor)) {
-                    double newDist = distances.get(currentNode) + edge.getWeight();
-                    if (newDist < distances.get(neighbor)) {
-                        distances.put(neighbor, newDist);
-                        predecessors.put(neighbor, currentNode);
-                        pq.remove(neighbor);
-                        pq.add(neighbor);
-                    }
-                }
-            }
+            int id = node.getId();
+            distances.put(node, engine.getDistance(id));
+            int pred = engine.getPredecessor(id);
+            predecessors.put(node, pred < 0 ? null : graph.getNodeById(pred));
         }
         return new Result(distances, predecessors);
     }
@@ -0,0 +1,135 @@
+package D0812;// DistanceOracle.java
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 儲存在檔案中的所有點對最短路徑結果。
+ * 先以 save 將 FloydWarshall 等計算結果寫成二進位檔，之後用 open 以記憶體映射
+ * (memory-mapped) 的方式開啟，查詢直接讀取映射區域，不佔用 Java heap，
+ * 且多個 JVM 可以共用作業系統的同一份頁面快取。
+ *
+ * 檔案格式 (big-endian)：
+ * int MAGIC, int VERSION, int numNodes,
+ * double dist[numNodes * numNodes] (row-major), int next[numNodes * numNodes] (row-major)
+ */
+public class DistanceOracle implements AllPairsShortestPaths, Closeable {
+
+    private static final int MAGIC = 0x41505350; // "APSP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30; // 單一 MappedByteBuffer 最多映射 2GB，這裡取 1GB
+
+    private final FileChannel channel;
+    private final int numNodes;
+    private final MappedByteBuffer[] distSegments;
+    private final MappedByteBuffer[] nextSegments;
+    private final int distRowsPerSegment;
+    private final int nextRowsPerSegment;
+
+    private DistanceOracle(FileChannel channel, int numNodes) throws IOException {
+        this.channel = channel;
+        this.numNodes = numNodes;
+        long distStart = HEADER_BYTES;
+        long nextStart = distStart + (long) numNodes * numNodes * Double.BYTES;
+        this.distRowsPerSegment = rowsPerSegment(numNodes, Double.BYTES);
+        this.nextRowsPerSegment = rowsPerSegment(numNodes, Integer.BYTES);
+        this.distSegments = mapRows(channel, distStart, numNodes, Double.BYTES, distRowsPerSegment);
+        this.nextSegments = mapRows(channel, nextStart, numNodes, Integer.BYTES, nextRowsPerSegment);
+    }
+
+    /**
+     * 將計算結果寫入檔案。
+     * @param apsp 已計算完成的所有點對最短路徑
+     * @param file 輸出檔案，已存在則覆寫
+     */
+    public static void save(AllPairsShortestPaths apsp, Path file) throws IOException {
+        int n = apsp.getNumNodes();
+        try (OutputStream fileOut = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    out.writeDouble(apsp.getShortestDistance(u, v));
+                }
+            }
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    out.writeInt(apsp.getNextHop(u, v));
+                }
+            }
+        }
+    }
+
+    /**
+     * 以唯讀的記憶體映射方式開啟 save 產生的檔案。
+     */
+    public static DistanceOracle open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("不是有效的距離檔案: " + file);
+            }
+            int n = header.getInt();
+            long expected = HEADER_BYTES + (long) n * n * (Double.BYTES + Integer.BYTES);
+            if (channel.size() != expected) {
+                throw new IOException("距離檔案大小不符: " + file);
+            }
+            return new DistanceOracle(channel, n);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getNumNodes() { return numNodes; }
+
+    @Override
+    public double getShortestDistance(int u, int v) {
+        int segment = u / distRowsPerSegment;
+        int row = u - segment * distRowsPerSegment;
+        return distSegments[segment].getDouble((row * numNodes + v) * Double.BYTES);
+    }
+
+    @Override
+    public int getNextHop(int u, int v) {
+        int segment = u / nextRowsPerSegment;
+        int row = u - segment * nextRowsPerSegment;
+        return nextSegments[segment].getInt((row * numNodes + v) * Integer.BYTES);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // 每個映射區段只放完整的列，讓查詢時以 u 直接定位區段
+    private static int rowsPerSegment(int numNodes, int elementBytes) {
+        long rowBytes = Math.max(1L, (long) numNodes * elementBytes);
+        return (int) Math.max(1L, MAX_SEGMENT_BYTES / rowBytes);
+    }
+
+    private static MappedByteBuffer[] mapRows(FileChannel channel, long start, int numNodes,
+                                              int elementBytes, int rowsPerSegment) throws IOException {
+        long rowBytes = (long) numNodes * elementBytes;
+        int count = numNodes == 0 ? 0 : (numNodes + rowsPerSegment - 1) / rowsPerSegment;
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int s = 0; s < count; s++) {
+            int rows = Math.min(rowsPerSegment, numNodes - s * rowsPerSegment);
+            long offset = start + (long) s * rowsPerSegment * rowBytes;
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset, rows * rowBytes);
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,213 @@
+package D0812;// DynamicShortestPaths.java
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 可隨圖形變動而增量更新的所有點對最短路徑。
+ * 所有修改都必須透過本類別進行 (它會同時修改 Graph)，否則矩陣會與圖不一致。
+ *
+ * - 新增邊或降低權重：最短路徑只可能經過這條邊變短。只有「到 v 變近」的起點與
+ *   「從 v 出發變近」的終點需要檢查，其餘點對保持不變。
+ * - 刪除邊或提高權重：只有路徑樹用到這條邊的終點欄需要修復。對每個受影響的終點 j
+ *   重新從 j 執行一次 Dijkstra (無向圖，j 的前驅即為其他節點走向 j 的下一步)，
+ *   其他欄位完全不動。
+ *
+ * 距離與路徑矩陣以一維 row-major 陣列儲存，格式與 BlockedFloydWarshall 相同。
+ */
+public class DynamicShortestPaths implements AllPairsShortestPaths {
+
+    private final Graph graph;
+    private final int numNodes;
+    private final double[] dist; // dist[i * numNodes + j]
+    private final int[] next;    // next[i * numNodes + j]，-1 表示不可達
+    private final ForkJoinPool pool;
+    private final ThreadLocal<FastDijkstra> engines;
+
+    public DynamicShortestPaths(Graph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 以平行的多起點 Dijkstra 計算初始矩陣。
+     * @param graph 要維護的圖，節點 ID 必須為 0..n-1
+     * @param pool 初始計算與修復時使用的執行緒池
+     */
+    public DynamicShortestPaths(Graph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.numNodes = graph.getNodes().size();
+        this.dist = new double[numNodes * numNodes];
+        this.next = new int[numNodes * numNodes];
+        this.pool = pool;
+        this.engines = ThreadLocal.withInitial(() -> new FastDijkstra(graph));
+
+        int[] all = new int[numNodes];
+        for (int i = 0; i < numNodes; i++) all[i] = i;
+        repairColumns(all, numNodes);
+    }
+
+    /**
+     * 新增一條邊並增量更新。
+     * @return 邊原本不存在而成功新增則為 true
+     */
+    public boolean addEdge(Node source, Node dest) {
+        // 矩陣與 Dijkstra 工作陣列在建構時就固定為 numNodes，無法容納新的節點
+        if (source.getId() < 0 || source.getId() >= numNodes || dest.getId() < 0 || dest.getId() >= numNodes) {
+            throw new IllegalArgumentException("節點 ID 必須在 [0, " + numNodes + ") 之間");
+        }
+        if (source.equals(dest) || graph.hasEdge(source.getId(), dest.getId())) return false;
+        graph.addEdge(source, dest);
+        relaxThroughEdge(source.getId(), dest.getId(), graph.getEdgeWeight(source.getId(), dest.getId()));
+        return true;
+    }
+
+    /**
+     * 刪除一條邊並修復受影響的終點欄。
+     * @return 邊原本存在則為 true
+     */
+    public boolean removeEdge(Node source, Node dest) {
+        int u = source.getId();
+        int v = dest.getId();
+        if (!graph.hasEdge(u, v)) return false;
+        int[] affected = new int[numNodes];
+        int count = collectColumnsUsingEdge(u, v, affected);
+        graph.removeEdge(source, dest);
+        repairColumns(affected, count);
+        return true;
+    }
+
+    /**
+     * 修改邊的權重並增量更新：變小時與新增邊相同，變大時與刪除邊相同。
+     * @return 邊存在則為 true
+     */
+    public boolean updateEdgeWeight(Node source, Node dest, double weight) {
+        int u = source.getId();
+        int v = dest.getId();
+        double old = graph.getEdgeWeight(u, v);
+        if (old == Double.POSITIVE_INFINITY) return false;
+        if (weight < old) {
+            graph.updateEdgeWeight(source, dest, weight);
+            relaxThroughEdge(u, v, weight);
+        } else if (weight > old) {
+            int[] affected = new int[numNodes];
+            int count = collectColumnsUsingEdge(u, v, affected);
+            graph.updateEdgeWeight(source, dest, weight);
+            repairColumns(affected, count);
+        }
+        return true;
+    }
+
+    @Override
+    public int getNumNodes() { return numNodes; }
+
+    @Override
+    public double getShortestDistance(int u, int v) {
+        return dist[u * numNodes + v];
+    }
+
+    @Override
+    public int getNextHop(int u, int v) {
+        return next[u * numNodes + v];
+    }
+
+    // 新的 u-v 邊 (權重 w) 只可能讓經過它的路徑變短，兩個方向各處理一次
+    private void relaxThroughEdge(int u, int v, double w) {
+        relaxDirected(u, v, w);
+        relaxDirected(v, u, w);
+    }
+
+    /**
+     * 處理經過 u -> v 的新路徑 i ~> u -> v ~> j。
+     * 只有 dist[i][u] + w < dist[i][v] 的起點 i 與 w + dist[v][j] < dist[u][j] 的終點 j 可能改善。
+     */
+    private void relaxDirected(int u, int v, double w) {
+        final int n = numNodes;
+        int[] sources = new int[n];
+        int[] targets = new int[n];
+        int sourceCount = 0, targetCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (dist[i * n + u] + w < dist[i * n + v]) sources[sourceCount++] = i;
+            if (w + dist[v * n + i] < dist[u * n + i]) targets[targetCount++] = i;
+        }
+        for (int a = 0; a < sourceCount; a++) {
+            int i = sources[a];
+            int iRow = i * n;
+            double viaU = dist[iRow + u] + w;
+            int firstHop = i == u ? v : next[iRow + u];
+            for (int b = 0; b < targetCount; b++) {
+                int j = targets[b];
+                double candidate = viaU + dist[v * n + j];
+                if (candidate < dist[iRow + j]) {
+                    dist[iRow + j] = candidate;
+                    next[iRow + j] = firstHop;
+                }
+            }
+        }
+    }
+
+    /**
+     * 找出路徑樹用到 u-v 邊的終點 j：在 j 的路徑樹中 u 的下一步是 v，或 v 的下一步是 u。
+     * @return 受影響的終點數，ID 寫入 out
+     */
+    private int collectColumnsUsingEdge(int u, int v, int[] out) {
+        int count = 0;
+        for (int j = 0; j < numNodes; j++) {
+            if (next[u * numNodes + j] == v || next[v * numNodes + j] == u) {
+                out[count++] = j;
+            }
+        }
+        return count;
+    }
+
+    // 對每個終點 j 重新執行 Dijkstra 改寫第 j 欄，再依序把修好的欄鏡射到對稱的第 j 列距離
+    private void repairColumns(int[] columns, int count) {
+        if (count == 0) return;
+        pool.invoke(new ColumnTask(columns, 0, count));
+        final int n = numNodes;
+        for (int c = 0; c < count; c++) {
+            int j = columns[c];
+            for (int i = 0; i < n; i++) {
+                dist[j * n + i] = dist[i * n + j];
+            }
+        }
+    }
+
+    private void rebuildColumn(int j, FastDijkstra engine) {
+        engine.run(j);
+        final int n = numNodes;
+        for (int i = 0; i < n; i++) {
+            double d = engine.getDistance(i);
+            dist[i * n + j] = d;
+            if (i == j) {
+                next[i * n + j] = j;
+            } else {
+                next[i * n + j] = d == Double.POSITIVE_INFINITY ? -1 : engine.getPredecessor(i);
+            }
+        }
+    }
+
+    private class ColumnTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] columns;
+        private final int from, to;
+
+        ColumnTask(int[] columns, int from, int to) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 4) {
+                FastDijkstra engine = engines.get();
+                for (int c = from; c < to; c++) {
+                    rebuildColumn(columns[c], engine);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ColumnTask(columns, from, mid), new ColumnTask(columns, mid, to));
+        }
+    }
+}
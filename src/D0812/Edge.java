@@ -12,6 +12,12 @@ public class Edge {
         this.weight = Math.sqrt(Math.pow(source.getX() - destination.getX(), 2) + Math.pow(source.getY() - destination.getY(), 2));
     }
 
+    public Edge(Node source, Node destination, double weight) {
+        this.source = source;
+        this.destination = destination;
+        this.weight = weight;
+    }
+
     public Node getSource() { return source; }
     public Node getDestination() { return destination; }
     public double getWeight() { return weight; }
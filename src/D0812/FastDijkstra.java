@@ -0,0 +1,67 @@
+package D0812;// FastDijkstra.java
+import java.util.Arrays;
+
+/**
+ * 以鄰接串列與索引堆積實作的 Dijkstra 演算法。
+ * 每次取出節點時只走訪該節點的鄰居，距離與前驅節點存放在以節點 ID 為索引的
+ * double[] / int[] 中。同一個實例可以對不同起點重複執行，不會再配置新陣列。
+ */
+public class FastDijkstra {
+
+    private final Graph graph;
+    private final double[] dist;
+    private final int[] pred;   // -1 表示沒有前驅節點 (起點或不可達)
+    private final IndexedMinHeap heap;
+    private int source = -1;
+
+    public FastDijkstra(Graph graph) {
+        this.graph = graph;
+        int n = graph.getNodeIdBound();
+        this.dist = new double[n];
+        this.pred = new int[n];
+        this.heap = new IndexedMinHeap(n);
+    }
+
+    /**
+     * 從指定起點計算到所有節點的最短路徑，結果會覆蓋上一次執行的結果。
+     * @param sourceId 起點 ID
+     */
+    public void run(int sourceId) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(pred, -1);
+        heap.clear();
+        this.source = sourceId;
+
+        dist[sourceId] = 0;
+        heap.insertOrDecrease(sourceId, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            double du = dist[u];
+            int degree = graph.getDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getNeighborId(u, i);
+                double nd = du + graph.getNeighborWeight(u, i);
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    pred[v] = u;
+                    heap.insertOrDecrease(v, nd);
+                }
+            }
+        }
+    }
+
+    public int getSource() { return source; }
+    public double getDistance(int id) { return dist[id]; }
+    public int getPredecessor(int id) { return pred[id]; }
+
+    /**
+     * 直接取得內部的距離陣列 (唯讀使用)，下一次 run 會覆寫其內容。
+     */
+    public double[] distances() { return dist; }
+
+    /**
+     * 直接取得內部的前驅陣列 (唯讀使用)，下一次 run 會覆寫其內容。
+     */
+    public int[] predecessors() { return pred; }
+}
@@ -6,7 +6,7 @@ import java.util.List;
 /**
  * 實現 Floyd-Warshall 演算法來找到圖中所有節點對之間的最短路徑。
  */
-public class FloydWarshall {
+public class FloydWarshall implements AllPairsShortestPaths {
 
     private final double[][] dist; // 距離矩陣，dist[i][j] 儲存從 i 到 j 的最短距離
     private final int[][] next;   // 路徑重建矩陣，next[i][j] 儲存從 i 到 j 路徑上的下一個節點
@@ -73,10 +73,21 @@ public class FloydWarshall {
      * @param v 終點 ID
      * @return 最短距離，如果不可達則為無窮大
      */
+    @Override
     public double getShortestDistance(int u, int v) {
         return dist[u][v];
     }
 
+    @Override
+    public int getNextHop(int u, int v) {
+        return next[u][v];
+    }
+
+    @Override
+    public int getNumNodes() {
+        return numNodes;
+    }
+
     /**
      * 重建從起點 u 到終點 v 的最短路徑。
      * @param u 起點 ID
@@ -84,6 +95,7 @@ public class FloydWarshall {
      * @param graph 圖物件，用於將節點 ID 轉換為 Node 物件
      * @return 由 Node 物件組成的路徑列表，如果不可達則為 null
      */
+    @Override
     public List<Node> getPath(int u, int v, Graph graph) {
         if (next[u][v] == -1) {
             return null; // 不可達
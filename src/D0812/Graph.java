@@ -1,37 +1,148 @@
 package D0812;// Graph.java
+import GraphCore.LongHashSet;
+
 import java.util.*;
 
 public class Graph {
     private final List<Node> nodes;
     private final List<Edge> edges;
 
+    // 鄰接索引：以節點 ID 為陣列索引，讓查詢節點、走訪鄰居、檢查重複邊都不必掃描整個清單
+    private Node[] nodeById;
+    private int[][] adjNodes;      // adjNodes[u][0..degree[u]) 為 u 的鄰居 ID
+    private double[][] adjWeights; // 與 adjNodes 對應的邊權重
+    private int[][] adjEdges;      // 與 adjNodes 對應的邊在 edges 中的索引，刪除邊時使用
+    private int[] degree;
+    private LongHashSet edgeKeys;  // 以 edgeKey(u, v) 打包的無向邊集合
+
     public Graph() {
         this.nodes = new ArrayList<>();
         this.edges = new ArrayList<>();
+        this.nodeById = new Node[0];
+        this.adjNodes = new int[0][];
+        this.adjWeights = new double[0][];
+        this.adjEdges = new int[0][];
+        this.degree = new int[0];
+        this.edgeKeys = new LongHashSet();
     }
 
-    public void addNode(Node node) { nodes.add(node); }
+    public void addNode(Node node) {
+        ensureNodeCapacity(node.getId() + 1);
+        nodes.add(node);
+        nodeById[node.getId()] = node;
+    }
 
+    /**
+     * 新增無向邊；尚未以 addNode 加入的端點會自動加入，讓鄰接索引與 getNodeById 保持一致。
+     */
     public void addEdge(Node source, Node dest) {
         if (source.equals(dest)) return;
-        for (Edge edge : edges) {
-            if ((edge.getSource().equals(source) && edge.getDestination().equals(dest)) ||
-                    (edge.getSource().equals(dest) && edge.getDestination().equals(source))) {
-                return;
-            }
+        int u = source.getId();
+        int v = dest.getId();
+        if (u < 0 || v < 0) throw new IllegalArgumentException("節點 ID 不可為負: " + u + ", " + v);
+        if (!edgeKeys.add(edgeKey(u, v))) return;
+        ensureNodeCapacity(Math.max(u, v) + 1);
+        if (nodeById[u] == null) addNode(source);
+        if (nodeById[v] == null) addNode(dest);
+
+        Edge edge = new Edge(source, dest);
+        edges.add(edge);
+        appendNeighbor(u, v, edge.getWeight(), edges.size() - 1);
+        appendNeighbor(v, u, edge.getWeight(), edges.size() - 1);
+    }
+
+    /**
+     * 刪除兩個節點之間的邊 (無向)，成本為 O(degree)。
+     * 被刪除的位置會由 edges 的最後一條邊填補，因此 getEdges() 的順序可能改變。
+     * @return 邊原本存在則為 true
+     */
+    public boolean removeEdge(Node source, Node dest) {
+        int u = source.getId();
+        int v = dest.getId();
+        if (!edgeKeys.remove(edgeKey(u, v))) return false;
+
+        int index = adjEdges[u][indexOfNeighbor(u, v)];
+        removeNeighbor(u, v);
+        removeNeighbor(v, u);
+
+        int lastIndex = edges.size() - 1;
+        Edge last = edges.remove(lastIndex);
+        if (index != lastIndex) {
+            edges.set(index, last);
+            int a = last.getSource().getId();
+            int b = last.getDestination().getId();
+            adjEdges[a][indexOfNeighbor(a, b)] = index;
+            adjEdges[b][indexOfNeighbor(b, a)] = index;
         }
-        edges.add(new Edge(source, dest));
+        return true;
+    }
+
+    /**
+     * 修改既有邊的權重 (預設權重為兩端點的歐氏距離)。
+     * 注意 PointToPointSearch 的 A* 以歐氏距離為啟發函數，權重小於歐氏距離時 A* 不保證最短。
+     * @return 邊存在則為 true
+     */
+    public boolean updateEdgeWeight(Node source, Node dest, double weight) {
+        int u = source.getId();
+        int v = dest.getId();
+        if (!hasEdge(u, v)) return false;
+
+        int iu = indexOfNeighbor(u, v);
+        int iv = indexOfNeighbor(v, u);
+        int index = adjEdges[u][iu];
+        Edge old = edges.get(index);
+        edges.set(index, new Edge(old.getSource(), old.getDestination(), weight));
+        adjWeights[u][iu] = weight;
+        adjWeights[v][iv] = weight;
+        return true;
+    }
+
+    /**
+     * 取得兩個節點之間邊的權重，沒有邊時為無窮大。
+     */
+    public double getEdgeWeight(int u, int v) {
+        if (!hasEdge(u, v)) return Double.POSITIVE_INFINITY;
+        return adjWeights[u][indexOfNeighbor(u, v)];
+    }
+
+    /**
+     * 以 O(1) 時間檢查兩個節點之間是否已有邊 (無向)。
+     */
+    public boolean hasEdge(int u, int v) {
+        return u != v && edgeKeys.contains(edgeKey(u, v));
     }
 
+    /**
+     * 取得節點的鄰居數量，搭配 getNeighborId / getNeighborWeight 以 O(degree) 走訪鄰居。
+     */
+    public int getDegree(int id) {
+        return id >= 0 && id < degree.length ? degree[id] : 0;
+    }
+
+    public int getNeighborId(int id, int index) { return adjNodes[id][index]; }
+    public double getNeighborWeight(int id, int index) { return adjWeights[id][index]; }
+
+    /**
+     * 節點 ID 的上界 (不含)，可用來配置以 ID 為索引的陣列。
+     */
+    public int getNodeIdBound() { return nodeById.length; }
+
     public List<Node> getNodes() { return Collections.unmodifiableList(nodes); }
     public List<Edge> getEdges() { return Collections.unmodifiableList(edges); }
     public Node getNodeById(int id) {
-        return nodes.stream().filter(node -> node.getId() == id).findFirst().orElse(null);
+        return id >= 0 && id < nodeById.length ? nodeById[id] : null;
     }
 
     public void generateRandomGraph(int numNodes, int numEdges, int width, int height) {
         nodes.clear();
         edges.clear();
+        nodeById = new Node[0];
+        adjNodes = new int[0][];
+        adjWeights = new double[0][];
+        adjEdges = new int[0][];
+        degree = new int[0];
+        edgeKeys = new LongHashSet(numEdges);
+        ensureNodeCapacity(numNodes);
         Random rand = new Random();
 
         for (int i = 0; i < numNodes; i++) {
@@ -86,4 +197,55 @@ public class Graph {
         }
         return sb.toString();
     }
+
+    // 無向邊的鍵：較小的 ID 放在高 32 位元，確保 (u, v) 與 (v, u) 得到相同的鍵
+    static long edgeKey(int u, int v) {
+        int lo = Math.min(u, v);
+        int hi = Math.max(u, v);
+        return ((long) lo << 32) | (hi & 0xffffffffL);
+    }
+
+    private void appendNeighbor(int u, int v, double weight, int edgeIndex) {
+        int d = degree[u];
+        if (adjNodes[u] == null) {
+            adjNodes[u] = new int[4];
+            adjWeights[u] = new double[4];
+            adjEdges[u] = new int[4];
+        } else if (d == adjNodes[u].length) {
+            adjNodes[u] = Arrays.copyOf(adjNodes[u], d << 1);
+            adjWeights[u] = Arrays.copyOf(adjWeights[u], d << 1);
+            adjEdges[u] = Arrays.copyOf(adjEdges[u], d << 1);
+        }
+        adjNodes[u][d] = v;
+        adjWeights[u][d] = weight;
+        adjEdges[u][d] = edgeIndex;
+        degree[u] = d + 1;
+    }
+
+    // 以最後一個鄰居填補被刪除的位置
+    private void removeNeighbor(int u, int v) {
+        int i = indexOfNeighbor(u, v);
+        int last = --degree[u];
+        adjNodes[u][i] = adjNodes[u][last];
+        adjWeights[u][i] = adjWeights[u][last];
+        adjEdges[u][i] = adjEdges[u][last];
+    }
+
+    private int indexOfNeighbor(int u, int v) {
+        int[] neighbors = adjNodes[u];
+        for (int i = 0; i < degree[u]; i++) {
+            if (neighbors[i] == v) return i;
+        }
+        return -1;
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (capacity <= nodeById.length) return;
+        int newCapacity = Math.max(capacity, nodeById.length + (nodeById.length >> 1));
+        nodeById = Arrays.copyOf(nodeById, newCapacity);
+        adjNodes = Arrays.copyOf(adjNodes, newCapacity);
+        adjWeights = Arrays.copyOf(adjWeights, newCapacity);
+        adjEdges = Arrays.copyOf(adjEdges, newCapacity);
+        degree = Arrays.copyOf(degree, newCapacity);
+    }
 }
\ No newline at end of file
@@ -19,6 +19,8 @@ public class GraphGUI extends JFrame {
     private Graph graph;
     // **新增**: 用於儲存 Floyd-Warshall 演算法的結果
     private FloydWarshall floydWarshallResult;
+    // 兩點查詢使用的雙向 Dijkstra / A* 引擎，隨圖形一起重建
+    private PointToPointSearch pointToPointSearch;
 
     public GraphGUI() {
         setTitle("圖資料結構與最短路徑視覺化 (Dijkstra vs Floyd-Warshall)");
@@ -113,6 +115,7 @@ public class GraphGUI extends JFrame {
 
             // **新增**: 在產生圖形後，立即計算所有配對的最短路徑
             floydWarshallResult = new FloydWarshall(graph);
+            pointToPointSearch = new PointToPointSearch(graph);
 
             graphPanel.setGraph(graph);
             matrixTextArea.setText(graph.getAdjacencyMatrixString());
@@ -171,7 +174,7 @@ public class GraphGUI extends JFrame {
     }
 
     /**
-     * **修改**: 比較 Dijkstra 和 Floyd-Warshall 尋找兩點間最短路徑的結果。
+     * **修改**: 比較雙向 Dijkstra、A* 和 Floyd-Warshall 尋找兩點間最短路徑的結果。
      */
     private void comparePathBetweenTwoNodes(ActionEvent e) {
         if (startNodeBox.getSelectedItem() == null || endNodeBox.getSelectedItem() == null || graph.getNodes().isEmpty()) return;
@@ -184,10 +187,9 @@ public class GraphGUI extends JFrame {
 
         if (startNode == null || endNode == null) return;
 
-        // --- 執行 Dijkstra ---
-        Dijkstra.Result dijkstraResult = Dijkstra.findShortestPaths(graph, startNode);
-        double dijkstraDist = dijkstraResult.distances.get(endNode);
-        List<Node> dijkstraPath = Dijkstra.getPath(dijkstraResult, endNode);
+        // --- 執行兩點查詢 (找到終點即停止，不必計算整張圖) ---
+        PointToPointSearch.Result bidiResult = pointToPointSearch.bidirectionalDijkstra(startId, endId);
+        PointToPointSearch.Result aStarResult = pointToPointSearch.aStar(startId, endId);
 
         // --- 提取預先計算好的 Floyd-Warshall 結果 ---
         double fwDist = floydWarshallResult.getShortestDistance(startId, endId);
@@ -200,15 +202,10 @@ public class GraphGUI extends JFrame {
         sb.append(String.format("比較 V%d 到 V%d 的最短路徑:\n", startId, endId));
         sb.append("===================================\n");
 
-        // Dijkstra 輸出
-        sb.append("[Dijkstra 演算法]\n");
-        if (dijkstraPath == null || dijkstraDist == Double.POSITIVE_INFINITY) {
-            sb.append("路徑不存在。\n");
-        } else {
-            sb.append("距離: ").append(df.format(dijkstraDist)).append("\n");
-            sb.append("路徑: ").append(formatPath(dijkstraPath)).append("\n");
-        }
-
+        // 雙向 Dijkstra 與 A* 輸出
+        appendPointToPointResult(sb, "[雙向 Dijkstra 演算法]", bidiResult, df);
+        sb.append("\n");
+        appendPointToPointResult(sb, "[A* 演算法 (歐氏距離啟發)]", aStarResult, df);
         sb.append("\n");
 
         // Floyd-Warshall 輸出
@@ -222,8 +219,19 @@ public class GraphGUI extends JFrame {
 
         resultTextArea.setText(sb.toString());
 
-        // 在 GUI 上高亮顯示路徑 (這裡我們選擇顯示 Dijkstra 的結果)
-        graphPanel.setShortestPath(dijkstraPath);
+        // 在 GUI 上高亮顯示路徑 (這裡我們選擇顯示 A* 的結果)
+        graphPanel.setShortestPath(aStarResult.path);
+    }
+
+    private void appendPointToPointResult(StringBuilder sb, String title, PointToPointSearch.Result result, DecimalFormat df) {
+        sb.append(title).append("\n");
+        if (result.path == null) {
+            sb.append("路徑不存在。\n");
+        } else {
+            sb.append("距離: ").append(df.format(result.distance)).append("\n");
+            sb.append("路徑: ").append(formatPath(result.path)).append("\n");
+        }
+        sb.append("處理節點數: ").append(result.settledNodes).append("\n");
     }
 
     private void updateComboBoxes() {
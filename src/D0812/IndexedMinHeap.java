@@ -0,0 +1,126 @@
+package D0812;// IndexedMinHeap.java
+import java.util.Arrays;
+
+/**
+ * 以節點 ID (0..capacity-1) 為索引的 4-ary 最小堆積，支援 O(log n) 的 decrease-key。
+ * 優先值與位置都存在基本型別陣列中，不會為每次插入建立物件，可重複使用。
+ */
+class IndexedMinHeap {
+    private static final int D = 4;
+
+    private final int[] heap;    // heap[i] 為第 i 個位置上的節點 ID
+    private final int[] pos;     // pos[id] 為節點在 heap 中的位置，-1 表示不在堆積內
+    private final double[] keys; // keys[id] 為節點目前的優先值
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    boolean isEmpty() { return size == 0; }
+    int size() { return size; }
+    boolean contains(int id) { return pos[id] >= 0; }
+    double peekKey() { return keys[heap[0]]; }
+
+    /**
+     * 若節點不在堆積中則插入；若已存在且新值較小則執行 decrease-key。
+     */
+    void insertOrDecrease(int id, double key) {
+        int i = pos[id];
+        if (i < 0) {
+            i = size++;
+            heap[i] = id;
+            pos[id] = i;
+            keys[id] = key;
+            siftUp(i);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(i);
+        }
+    }
+
+    /**
+     * 插入節點，或將已存在節點的優先值改為 key (可增可減)。
+     */
+    void insertOrUpdate(int id, double key) {
+        int i = pos[id];
+        if (i < 0) {
+            insertOrDecrease(id, key);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(i);
+        } else if (key > keys[id]) {
+            keys[id] = key;
+            siftDown(i);
+        }
+    }
+
+    /**
+     * 取出並移除優先值最小的節點 ID。
+     */
+    int poll() {
+        int min = heap[0];
+        pos[min] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            pos[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * 清空堆積，只重設仍在堆積中的項目，成本與剩餘元素數成正比。
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) / D;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) break;
+            heap[i] = parentId;
+            pos[parentId] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (true) {
+            int first = i * D + 1;
+            if (first >= size) break;
+            int last = Math.min(first + D, size);
+            int best = first;
+            double bestKey = keys[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                double k = keys[heap[c]];
+                if (k < bestKey) {
+                    best = c;
+                    bestKey = k;
+                }
+            }
+            if (bestKey >= key) break;
+            int childId = heap[best];
+            heap[i] = childId;
+            pos[childId] = i;
+            i = best;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+}
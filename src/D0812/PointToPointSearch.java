@@ -0,0 +1,177 @@
+package D0812;// PointToPointSearch.java
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * 兩點間最短路徑查詢：雙向 Dijkstra 與 A* (歐氏距離啟發函數)。
+ * 兩者都會在確定答案後立即停止，只處理圖中的一小部分節點。
+ * 工作陣列以「查詢編號」標記是否有效，因此每次查詢不需要重設整個陣列，
+ * 同一個實例可反覆查詢 (非執行緒安全)。
+ */
+public class PointToPointSearch {
+
+    public static class Result {
+        public final double distance;    // 不可達時為無窮大
+        public final List<Node> path;    // 不可達時為 null
+        public final int settledNodes;   // 從堆積取出的節點數，用來比較搜尋範圍
+
+        public Result(double distance, List<Node> path, int settledNodes) {
+            this.distance = distance;
+            this.path = path;
+            this.settledNodes = settledNodes;
+        }
+    }
+
+    private final Graph graph;
+    private final double[] distF, distB;
+    private final int[] predF, predB;
+    private final int[] stampF, stampB;   // stamp[v] == query 時 dist/pred 才有效
+    private final boolean[] settledF, settledB;
+    private final IndexedMinHeap heapF, heapB;
+    private int query;
+
+    public PointToPointSearch(Graph graph) {
+        this.graph = graph;
+        int n = graph.getNodeIdBound();
+        this.distF = new double[n];
+        this.distB = new double[n];
+        this.predF = new int[n];
+        this.predB = new int[n];
+        this.stampF = new int[n];
+        this.stampB = new int[n];
+        this.settledF = new boolean[n];
+        this.settledB = new boolean[n];
+        this.heapF = new IndexedMinHeap(n);
+        this.heapB = new IndexedMinHeap(n);
+    }
+
+    /**
+     * 雙向 Dijkstra：同時從起點與終點擴展，當兩邊堆積頂端距離之和不小於
+     * 目前找到的最短路徑長度時即可停止。
+     */
+    public Result bidirectionalDijkstra(int sourceId, int targetId) {
+        beginQuery();
+        visit(distF, predF, stampF, settledF, sourceId, 0, -1);
+        visit(distB, predB, stampB, settledB, targetId, 0, -1);
+        heapF.insertOrDecrease(sourceId, 0);
+        heapB.insertOrDecrease(targetId, 0);
+
+        double best = sourceId == targetId ? 0 : Double.POSITIVE_INFINITY;
+        int meet = sourceId == targetId ? sourceId : -1;
+        int settled = 0;
+
+        while (!heapF.isEmpty() && !heapB.isEmpty()) {
+            if (heapF.peekKey() + heapB.peekKey() >= best) break;
+
+            boolean forward = heapF.size() <= heapB.size();
+            IndexedMinHeap heap = forward ? heapF : heapB;
+            double[] dist = forward ? distF : distB;
+            int[] pred = forward ? predF : predB;
+            int[] stamp = forward ? stampF : stampB;
+            boolean[] settledFlags = forward ? settledF : settledB;
+            double[] otherDist = forward ? distB : distF;
+            int[] otherStamp = forward ? stampB : stampF;
+
+            int u = heap.poll();
+            settledFlags[u] = true;
+            settled++;
+            double du = dist[u];
+            int degree = graph.getDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getNeighborId(u, i);
+                double nd = du + graph.getNeighborWeight(u, i);
+                boolean reached = stamp[v] == query;
+                if (!reached || (!settledFlags[v] && nd < dist[v])) {
+                    visit(dist, pred, stamp, settledFlags, v, nd, u);
+                    heap.insertOrDecrease(v, nd);
+                }
+                // 另一方向已到達 v，檢查是否形成更短的完整路徑
+                if (otherStamp[v] == query && dist[v] + otherDist[v] < best) {
+                    best = dist[v] + otherDist[v];
+                    meet = v;
+                }
+            }
+        }
+
+        heapF.clear();
+        heapB.clear();
+        if (meet < 0) return new Result(Double.POSITIVE_INFINITY, null, settled);
+
+        LinkedList<Node> path = new LinkedList<>();
+        for (int v = meet; v >= 0; v = predF[v]) {
+            path.addFirst(graph.getNodeById(v));
+        }
+        for (int v = predB[meet]; v >= 0; v = predB[v]) {
+            path.addLast(graph.getNodeById(v));
+        }
+        return new Result(best, path, settled);
+    }
+
+    /**
+     * A* 搜尋：以節點座標間的歐氏距離作為啟發函數。
+     * 邊的權重本身就是兩端點的歐氏距離，所以啟發函數滿足一致性，終點被取出時即為最短路徑。
+     */
+    public Result aStar(int sourceId, int targetId) {
+        beginQuery();
+        Node target = graph.getNodeById(targetId);
+        visit(distF, predF, stampF, settledF, sourceId, 0, -1);
+        heapF.insertOrDecrease(sourceId, heuristic(graph.getNodeById(sourceId), target));
+
+        int settled = 0;
+        boolean found = false;
+        while (!heapF.isEmpty()) {
+            int u = heapF.poll();
+            settled++;
+            if (u == targetId) {
+                found = true;
+                break;
+            }
+            settledF[u] = true;
+            double du = distF[u];
+            int degree = graph.getDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getNeighborId(u, i);
+                double nd = du + graph.getNeighborWeight(u, i);
+                if (stampF[v] != query || (nd < distF[v] && !settledF[v])) {
+                    visit(distF, predF, stampF, settledF, v, nd, u);
+                    heapF.insertOrDecrease(v, nd + heuristic(graph.getNodeById(v), target));
+                }
+            }
+        }
+
+        heapF.clear();
+        if (!found) return new Result(Double.POSITIVE_INFINITY, null, settled);
+
+        LinkedList<Node> path = new LinkedList<>();
+        for (int v = targetId; v >= 0; v = predF[v]) {
+            path.addFirst(graph.getNodeById(v));
+        }
+        return new Result(distF[targetId], path, settled);
+    }
+
+    private static double heuristic(Node a, Node b) {
+        double dx = a.getX() - b.getX();
+        double dy = a.getY() - b.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private void beginQuery() {
+        query++;
+        if (query == Integer.MAX_VALUE) { // 查詢編號即將溢位，整個重設一次
+            Arrays.fill(stampF, 0);
+            Arrays.fill(stampB, 0);
+            query = 1;
+        }
+    }
+
+    // 寫入 dist/pred 並將節點標記為本次查詢已到達
+    private void visit(double[] dist, int[] pred, int[] stamp, boolean[] settledFlags, int v, double d, int p) {
+        if (stamp[v] != query) {
+            stamp[v] = query;
+            settledFlags[v] = false;
+        }
+        dist[v] = d;
+        pred[v] = p;
+    }
+}
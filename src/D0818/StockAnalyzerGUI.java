@@ -1,13 +1,14 @@
 package D0818;
 
+import StockCore.CsvScanner;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -194,19 +195,11 @@ public class StockAnalyzerGUI extends JFrame {
     private void loadStockData() {
         stockData = new ArrayList<>();
 
-        try (BufferedReader reader = new BufferedReader(new FileReader("stock_data.csv"))) {
-            String line = reader.readLine(); // 跳過標題行
-
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    String stockCode = parts[0].trim();
-                    LocalDate date = LocalDate.parse(parts[1].trim(), DATE_FORMAT);
-                    long volume = Long.parseLong(parts[2].trim());
-                    long amount = Long.parseLong(parts[3].trim());
-
-                    stockData.add(new StockRecord(stockCode, date, volume, amount));
-                }
+        try {
+            // 記憶體映射後分段平行解析，各區段的結果依檔案順序串接
+            List<RecordLoader> parts = CsvScanner.scan(Paths.get("stock_data.csv"), true, RecordLoader::new);
+            for (RecordLoader part : parts) {
+                stockData.addAll(part.records);
             }
 
             System.out.println("載入完成，共 " + stockData.size() + " 筆資料");
@@ -219,6 +212,33 @@ public class StockAnalyzerGUI extends JFrame {
         }
     }
 
+    /**
+     * 把 CSV 資料列轉成 StockRecord (欄位：股票代碼,交易日期,成交量,成交金額)
+     * 相鄰的資料列常有相同的股票代碼或日期，沿用上一筆的 String / LocalDate 物件
+     */
+    private static class RecordLoader implements CsvScanner.RowSink {
+        final List<StockRecord> records = new ArrayList<>();
+        private byte[] lastCode = new byte[0];
+        private String lastCodeText;
+        private int lastDate = -1;
+        private LocalDate lastLocalDate;
+
+        @Override
+        public void row(CsvScanner.Row row) {
+            if (row.fieldCount() < 4) return;
+            if (lastCodeText == null || !row.fieldEquals(0, lastCode)) {
+                lastCode = row.bytes(0);
+                lastCodeText = row.string(0);
+            }
+            int date = row.date(1);
+            if (date != lastDate) {
+                lastDate = date;
+                lastLocalDate = LocalDate.of(date / 10000, date / 100 % 100, date % 100);
+            }
+            records.add(new StockRecord(lastCodeText, lastLocalDate, row.parseLong(2), row.parseLong(3)));
+        }
+    }
+
     /**
      * 分析按鈕事件監聽器
      */
@@ -0,0 +1,124 @@
+package D0819;
+
+import StockCore.CsvScanner;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * 以位元組逐行掃描 CSV 檔，並提供直接從位元組解析欄位的工具方法。
+ * 每行交給 LineHandler 時附上該行在檔案中的位元組位置，行尾的 \r\n 或 \n 不含在內。
+ */
+final class CsvLines {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    interface LineHandler {
+        /**
+         * @param buf 含有這一行的緩衝區 (只在呼叫期間有效)
+         * @param start 行首在 buf 中的位置
+         * @param end 行尾 (不含換行) 在 buf 中的位置
+         * @param offset 行首在檔案中的位元組位置
+         */
+        void line(byte[] buf, int start, int end, long offset) throws IOException;
+    }
+
+    /**
+     * 略過標頭與空行、解析交易日期 (第三個欄位，yyyy-MM-dd) 後交給 row 的 LineHandler。
+     * 資料依股票排列，相鄰的列常是同一天，因此快取上一個日期對應的 epoch day。
+     */
+    abstract static class DateLineHandler implements LineHandler {
+        private boolean header = true;
+        private int lastDate = -1, lastDay; // 上一列的 yyyyMMdd 與對應的 epoch day
+
+        @Override
+        public final void line(byte[] buf, int start, int end, long offset) throws IOException {
+            if (header) {
+                header = false;
+                return;
+            }
+            if (end == start) return;
+            int first = comma(buf, start, end);
+            int second = first < 0 ? -1 : comma(buf, first + 1, end);
+            int dateStart = second + 1;
+            if (second < 0 || dateStart + 10 > end) {
+                throw new IOException("欄位不足，無法讀取交易日期，位置 " + offset);
+            }
+            int date = yyyymmdd(buf, dateStart);
+            if (date != lastDate) {
+                lastDate = date;
+                lastDay = CsvScanner.epochDay(date);
+            }
+            row(lastDay, buf, start, end, dateStart, offset);
+        }
+
+        /**
+         * @param day 交易日期 (epoch day)
+         * @param dateStart 交易日期欄位在 buf 中的起點
+         */
+        abstract void row(int day, byte[] buf, int start, int end, int dateStart, long offset) throws IOException;
+    }
+
+    private CsvLines() {
+    }
+
+    /**
+     * 逐行讀取整個檔案 (包含標頭)。
+     */
+    static void forEachLine(String file, LineHandler handler) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buf = new byte[BUFFER_SIZE];
+            long base = 0; // buf[0] 在檔案中的位置
+            int len = 0;
+            while (true) {
+                int n = in.read(buf, len, buf.length - len);
+                boolean eof = n < 0;
+                if (!eof) len += n;
+                int start = 0;
+                for (int i = 0; i < len; i++) {
+                    if (buf[i] != '\n' && !(eof && i == len - 1)) continue;
+                    int end = buf[i] == '\n' ? i : i + 1;
+                    if (end > start && buf[end - 1] == '\r') end--;
+                    handler.line(buf, start, end, base + start);
+                    start = i + 1;
+                }
+                if (eof) return;
+                // 未完成的一行移到緩衝區開頭；一行比緩衝區還長時擴大緩衝區
+                System.arraycopy(buf, start, buf, 0, len - start);
+                base += start;
+                len -= start;
+                if (len == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+        }
+    }
+
+    /**
+     * @return [from, end) 中第一個逗號的位置，沒有則為 -1
+     */
+    static int comma(byte[] buf, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buf[i] == ',') return i;
+        }
+        return -1;
+    }
+
+    static long digits(byte[] buf, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("無效的數字，位置 " + i);
+            if (value > (Long.MAX_VALUE - d) / 10) throw new NumberFormatException("數字超出範圍，位置 " + from);
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * 從 from 開始的 yyyy-MM-dd 轉成 yyyyMMdd 整數 (不建立 LocalDate)。
+     */
+    static int yyyymmdd(byte[] buf, int from) {
+        return (int) (digits(buf, from, from + 4) * 10000 + digits(buf, from + 5, from + 7) * 100
+                + digits(buf, from + 8, from + 10));
+    }
+}
@@ -0,0 +1,183 @@
+package D0819;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 依交易日期分區的磁碟索引。
+ * 原始檔依股票排列，同一天的資料散布在整個檔案中，因此建立索引時把資料改寫成依日期排列的副本
+ * (DATA.bydate，不含標頭)，並在 DATA.idx 記錄每個日期在副本中的位元組範圍。
+ * 日期區間 [from, to] 對應副本中一段連續的位元組，查詢只需定位並讀取這一段，
+ * 查詢時間與結果大小成正比，而不是與整個檔案成正比。
+ *
+ * 索引檔記錄原始檔的長度與修改時間，兩者不符時自動重建。
+ */
+public final class DateIndex {
+    private static final int MAGIC = 0x53444958; // "SDIX"
+    private static final int PARTITION_BUFFER = 1 << 14; // 建立索引時每個日期的寫入緩衝
+
+    private final File partitioned;
+    private final int firstDay;  // starts[0] 對應的 epoch day
+    private final long[] starts; // 日期 firstDay + i 在副本中的起點，共 dayCount + 1 個 (最後一個為檔案長度)
+
+    private DateIndex(File partitioned, int firstDay, long[] starts) {
+        this.partitioned = partitioned;
+        this.firstDay = firstDay;
+        this.starts = starts;
+    }
+
+    /**
+     * 開啟 dataFile 的索引；索引不存在或已過期時先建立 (需掃描原始檔兩次)。
+     */
+    public static DateIndex open(String dataFile) throws IOException {
+        File source = new File(dataFile);
+        File partitioned = new File(dataFile + ".bydate");
+        File indexFile = new File(dataFile + ".idx");
+        if (partitioned.exists() && indexFile.exists()) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(indexFile)))) {
+                if (in.readInt() == MAGIC && in.readLong() == source.length()
+                        && in.readLong() == source.lastModified()) {
+                    int firstDay = in.readInt();
+                    long[] starts = readStarts(in, indexFile.length());
+                    if (starts != null && starts[starts.length - 1] == partitioned.length()) {
+                        return new DateIndex(partitioned, firstDay, starts);
+                    }
+                }
+            } catch (EOFException e) {
+                // 索引檔不完整，重建
+            }
+        }
+        return build(source, partitioned, indexFile);
+    }
+
+    // 讀取日期起點；數量不合理 (索引檔損毀) 或起點不是從 0 遞增時回傳 null
+    private static long[] readStarts(DataInputStream in, long fileLength) throws IOException {
+        int count = in.readInt();
+        if (count < 1 || (long) count * Long.BYTES > fileLength) return null;
+        long[] starts = new long[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = in.readLong();
+            if (i == 0 ? starts[0] != 0 : starts[i] < starts[i - 1]) return null;
+        }
+        return starts;
+    }
+
+    /**
+     * 建立索引。
+     * 邏輯：
+     * 1. 第一次掃描統計每個日期的資料量 (位元組)，前綴和即為每個日期在副本中的起點。
+     * 2. 第二次掃描把每一行寫到所屬日期目前的位置；每個日期有自己的小緩衝區，滿了才以
+     *    FileChannel 的定位寫入一次。
+     * 理由：
+     * - 不需要把資料載入記憶體或另外排序，記憶體只有「日期數 × 緩衝區大小」。
+     * - 同一天的資料維持原始檔中的順序。
+     */
+    private static DateIndex build(File source, File partitioned, File indexFile) throws IOException {
+        DayBytes counter = new DayBytes();
+        CsvLines.forEachLine(source.getPath(), new CsvLines.DateLineHandler() {
+            @Override
+            void row(int day, byte[] buf, int start, int end, int dateStart, long offset) {
+                counter.add(day, end - start + 1); // 副本中每行以 \n 結尾
+            }
+        });
+
+        int firstDay = counter.firstDay;
+        int dayCount = counter.count;
+        long[] starts = new long[dayCount + 1];
+        for (int i = 0; i < dayCount; i++) starts[i + 1] = starts[i] + counter.bytes[i];
+
+        try (FileChannel out = FileChannel.open(partitioned.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long[] cursor = Arrays.copyOf(starts, dayCount);
+            byte[][] buffers = new byte[dayCount][];
+            int[] used = new int[dayCount];
+            CsvLines.forEachLine(source.getPath(), new CsvLines.DateLineHandler() {
+                @Override
+                void row(int day, byte[] buf, int start, int end, int dateStart, long offset)
+                        throws IOException {
+                    int d = day - firstDay;
+                    int length = end - start + 1;
+                    if (buffers[d] == null) buffers[d] = new byte[Math.max(PARTITION_BUFFER, length)];
+                    if (used[d] + length > buffers[d].length) {
+                        cursor[d] += write(out, buffers[d], used[d], cursor[d]);
+                        used[d] = 0;
+                        if (length > buffers[d].length) buffers[d] = new byte[length];
+                    }
+                    System.arraycopy(buf, start, buffers[d], used[d], end - start);
+                    buffers[d][used[d] + length - 1] = '\n';
+                    used[d] += length;
+                }
+            });
+            for (int d = 0; d < dayCount; d++) {
+                if (used[d] > 0) write(out, buffers[d], used[d], cursor[d]);
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(source.length());
+            out.writeLong(source.lastModified());
+            out.writeInt(firstDay);
+            out.writeInt(starts.length);
+            for (long start : starts) out.writeLong(start);
+        }
+        return new DateIndex(partitioned, firstDay, starts);
+    }
+
+    private static int write(FileChannel out, byte[] bytes, int length, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) position += out.write(buffer, position);
+        return length;
+    }
+
+    /**
+     * @return 日期區間 [fromDay, toDay] 在副本中的位元組範圍 {起點, 終點}，沒有資料時兩者相同
+     */
+    public long[] range(int fromDay, int toDay) {
+        int from = Math.max(0, Math.min(fromDay - firstDay, starts.length - 1));
+        int to = Math.max(0, Math.min(toDay - firstDay + 1, starts.length - 1));
+        if (to < from) to = from;
+        return new long[]{starts[from], starts[to]};
+    }
+
+    /**
+     * 只讀取日期區間 [fromDay, toDay] 的資料並載入成 StockStore (以 CsvScanner 平行解析這段位元組)。
+     */
+    public StockStore load(int fromDay, int toDay) throws IOException {
+        long[] range = range(fromDay, toDay);
+        return StockStore.load(partitioned.getPath(), range[0], range[1], false);
+    }
+
+    /**
+     * 每個日期的位元組數，以 epoch day 為索引的陣列，範圍隨資料兩端擴充。
+     */
+    private static final class DayBytes {
+        int firstDay;
+        int count;
+        long[] bytes = new long[0];
+
+        void add(int day, long length) {
+            if (count == 0) {
+                firstDay = day;
+                bytes = new long[1];
+                count = 1;
+            } else if (day < firstDay) {
+                int shift = firstDay - day;
+                long[] grown = new long[count + shift];
+                System.arraycopy(bytes, 0, grown, shift, count);
+                bytes = grown;
+                count += shift;
+                firstDay = day;
+            } else if (day - firstDay >= count) {
+                count = day - firstDay + 1;
+                if (count > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(count, bytes.length * 2));
+            }
+            bytes[day - firstDay] += length;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package D0819;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 串流式的外部合併排序，可排序比堆積記憶體大得多的 CSV 檔。
+ * 邏輯：
+ * 1. 逐塊讀取原始檔的位元組，只解析交易日期與排序欄位，符合日期區間的列以
+ *    (排序鍵, 該列在檔案中的位元組位置) 兩個 long 放進固定大小的緩衝區。
+ * 2. 緩衝區滿了就在記憶體中排序，以 DataOutputStream 寫成固定寬度 (16 位元組) 的二進位 run 檔。
+ * 3. 以敗者樹 (loser tree) 做 k 路合併，依序把 (鍵, 位置) 交給 RecordSink。
+ *    run 超過 MAX_FAN_IN 個時，先把最前面的 MAX_FAN_IN 個合併成一個新的 run 放到最後，
+ *    直到剩下不超過 MAX_FAN_IN 個再做最後一次合併。
+ * 理由：
+ * - 記憶體用量為 runRecords * 32 位元組 (鍵與位置各一個 long，加上同樣大小的排序暫存)，
+ *   再加上最多 MAX_FAN_IN 個 run 的讀取緩衝，與檔案大小無關；同時開啟的檔案數也有上限。
+ * - run 檔是定長二進位，合併時不需要再切割字串或解析數字。
+ * - 敗者樹每輸出一筆只需 log2(k) 次比較，且每次只沿一條路徑比較，比 PriorityQueue 少一半。
+ * 排序為由大到小；鍵相同時依原始檔中的位置 (即檔案順序)，結果是穩定的。
+ */
+public final class ExternalSorter {
+    private static final int RECORD_BYTES = 16; // 每筆 run 記錄：long 鍵 + long 位置
+    private static final int READ_BUFFER = CsvLines.BUFFER_SIZE; // 讀取 run 檔與寫出的緩衝區大小
+    private static final int MAX_FAN_IN = 64; // 一次合併最多開啟的 run 數
+
+    /**
+     * 接收排序結果的介面，依排序順序呼叫。
+     */
+    public interface RecordSink {
+        void accept(long key, long offset) throws IOException;
+    }
+
+    private final int runRecords; // 每個 run 的最大筆數
+    private final File tempDir;   // run 檔所在的目錄，null 表示系統暫存目錄
+
+    /**
+     * @param runRecords 每個 run 在記憶體中最多保留的筆數 (每筆 16 位元組，另需同樣大小的排序暫存)
+     * @param tempDir run 檔的目錄，null 表示系統暫存目錄
+     */
+    public ExternalSorter(int runRecords, File tempDir) {
+        if (runRecords < 1) throw new IllegalArgumentException("runRecords 必須為正數");
+        this.runRecords = runRecords;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * 排序 dataFile 中交易日期在 [fromDay, toDay] 之間的列。
+     * @param dataFile CSV 檔案 (第一行為標頭)
+     * @param fromDay 開始日期 (epoch day，含)
+     * @param toDay 結束日期 (epoch day，含)
+     * @param byVolume 是否按成交量排序（否則按成交金額）
+     * @param sink 依序接收 (排序鍵, 列的位元組位置)
+     * @return 符合條件的列數
+     */
+    public long sort(String dataFile, int fromDay, int toDay, boolean byVolume, RecordSink sink) throws IOException {
+        RunBuilder builder = new RunBuilder();
+        List<File> runs = builder.runs;
+        try {
+            scan(dataFile, fromDay, toDay, byVolume, builder);
+            if (runs.isEmpty()) {
+                // 資料量不超過一個 run，不需要寫出暫存檔
+                builder.sortBuffer();
+                for (int i = 0; i < builder.count; i++) sink.accept(builder.keys[i], builder.offsets[i]);
+                return builder.count;
+            }
+            builder.spill();
+            while (runs.size() > MAX_FAN_IN) {
+                List<File> group = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+                File merged = newRunFile();
+                runs.add(merged);
+                try (RunWriter out = new RunWriter(merged)) {
+                    merge(group, out);
+                }
+                runs.subList(0, MAX_FAN_IN).clear();
+                for (File run : group) run.delete();
+            }
+            merge(runs, sink);
+            return builder.total;
+        } finally {
+            for (File run : runs) run.delete();
+        }
+    }
+
+    // 逐行掃描原始檔，只解析日期與排序欄位 (欄位順序：股票代碼,股票名稱,交易日期,成交量,成交金額,...)
+    private static void scan(String dataFile, int fromDay, int toDay, boolean byVolume, RunBuilder builder)
+            throws IOException {
+        CsvLines.forEachLine(dataFile, new CsvLines.DateLineHandler() {
+            @Override
+            void row(int day, byte[] buf, int start, int end, int dateStart, long offset) throws IOException {
+                if (day < fromDay || day > toDay) return;
+                // 與 StockStore.row 相同，成交量與成交金額兩個欄位都必須存在且非空
+                int from = CsvLines.comma(buf, dateStart, end);
+                int volumeEnd = from < 0 ? -1 : CsvLines.comma(buf, from + 1, end);
+                if (from < 0 || from + 1 == (volumeEnd < 0 ? end : volumeEnd)) {
+                    throw new IOException("欄位不足，無法讀取成交量，位置 " + offset);
+                }
+                int amountEnd = volumeEnd < 0 ? -1 : CsvLines.comma(buf, volumeEnd + 1, end);
+                if (volumeEnd < 0 || volumeEnd + 1 == (amountEnd < 0 ? end : amountEnd)) {
+                    throw new IOException("欄位不足，無法讀取成交金額，位置 " + offset);
+                }
+                long key = byVolume ? CsvLines.digits(buf, from + 1, volumeEnd)
+                        : CsvLines.digits(buf, volumeEnd + 1, amountEnd < 0 ? end : amountEnd);
+                builder.add(key, offset);
+            }
+        });
+    }
+
+    private File newRunFile() throws IOException {
+        File run = File.createTempFile("stock_run_", ".bin", tempDir);
+        run.deleteOnExit();
+        return run;
+    }
+
+    /**
+     * 以敗者樹合併 runs 中的所有 run 檔 (最多 MAX_FAN_IN 個)。
+     */
+    private static void merge(List<File> runs, RecordSink sink) throws IOException {
+        int k = runs.size();
+        RunReader[] readers = new RunReader[k];
+        try {
+            for (int i = 0; i < k; i++) readers[i] = new RunReader(runs.get(i));
+            LoserTree tree = new LoserTree(readers);
+            while (true) {
+                int w = tree.winner();
+                RunReader r = readers[w];
+                if (r.exhausted) break; // 冠軍已耗盡，表示所有 run 都耗盡
+                sink.accept(r.key, r.offset);
+                r.advance();
+                tree.replay(w);
+            }
+        } finally {
+            for (RunReader r : readers) {
+                if (r != null) r.close();
+            }
+        }
+    }
+
+    /**
+     * 收集 (鍵, 位置) 並在緩衝區滿時排序寫出 run 檔。
+     */
+    private final class RunBuilder {
+        final long[] keys = new long[runRecords];
+        final long[] offsets = new long[runRecords];
+        final long[] tmpKeys = new long[runRecords];
+        final long[] tmpOffsets = new long[runRecords];
+        final List<File> runs = new ArrayList<>();
+        int count;
+        long total;
+
+        void add(long key, long offset) throws IOException {
+            if (count == runRecords) spill();
+            keys[count] = key;
+            offsets[count] = offset;
+            count++;
+            total++;
+        }
+
+        void spill() throws IOException {
+            if (count == 0) return;
+            sortBuffer();
+            File run = newRunFile();
+            runs.add(run);
+            try (RunWriter out = new RunWriter(run)) {
+                for (int i = 0; i < count; i++) out.accept(keys[i], offsets[i]);
+            }
+            count = 0;
+        }
+
+        // 由下而上的合併排序 (鍵由大到小)；緩衝區依檔案順序填入，穩定排序即保留檔案順序
+        void sortBuffer() {
+            long[] srcK = keys, srcO = offsets, dstK = tmpKeys, dstO = tmpOffsets;
+            for (int width = 1; width < count; width *= 2) {
+                for (int lo = 0; lo < count; lo += 2 * width) {
+                    int mid = Math.min(lo + width, count);
+                    int hi = Math.min(lo + 2 * width, count);
+                    int i = lo, j = mid, o = lo;
+                    while (i < mid && j < hi) {
+                        if (srcK[i] >= srcK[j]) {
+                            dstK[o] = srcK[i];
+                            dstO[o++] = srcO[i++];
+                        } else {
+                            dstK[o] = srcK[j];
+                            dstO[o++] = srcO[j++];
+                        }
+                    }
+                    while (i < mid) {
+                        dstK[o] = srcK[i];
+                        dstO[o++] = srcO[i++];
+                    }
+                    while (j < hi) {
+                        dstK[o] = srcK[j];
+                        dstO[o++] = srcO[j++];
+                    }
+                }
+                long[] t = srcK;
+                srcK = dstK;
+                dstK = t;
+                t = srcO;
+                srcO = dstO;
+                dstO = t;
+            }
+            if (srcK != keys) {
+                System.arraycopy(srcK, 0, keys, 0, count);
+                System.arraycopy(srcO, 0, offsets, 0, count);
+            }
+        }
+    }
+
+    /**
+     * 把 (鍵, 位置) 依序寫成 run 檔。
+     */
+    private static final class RunWriter implements RecordSink, Closeable {
+        private final DataOutputStream out;
+
+        RunWriter(File run) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), READ_BUFFER));
+        }
+
+        @Override
+        public void accept(long key, long offset) throws IOException {
+            out.writeLong(key);
+            out.writeLong(offset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * 依序讀取一個 run 檔，保留目前這筆記錄。
+     */
+    private static final class RunReader implements Closeable {
+        private final DataInputStream in;
+        private long remaining;
+        long key, offset;
+        boolean exhausted;
+
+        RunReader(File run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), READ_BUFFER));
+            remaining = run.length() / RECORD_BYTES;
+            advance();
+        }
+
+        void advance() throws IOException {
+            if (remaining == 0) {
+                exhausted = true;
+                return;
+            }
+            key = in.readLong();
+            offset = in.readLong();
+            remaining--;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * 敗者樹：內部節點 tree[1..k-1] 記錄該場比賽的敗者，tree[0] 為冠軍。
+     * 葉節點 i 位於隱含位置 k + i，替換冠軍後只需沿其路徑往上重賽。
+     */
+    private static final class LoserTree {
+        private final RunReader[] runs;
+        private final int[] tree;
+        private final int k;
+
+        LoserTree(RunReader[] runs) {
+            this.runs = runs;
+            this.k = runs.length;
+            this.tree = new int[k];
+            tree[0] = build(1);
+        }
+
+        private int build(int node) {
+            if (node >= k) return node - k;
+            int left = build(2 * node);
+            int right = build(2 * node + 1);
+            if (beats(left, right)) {
+                tree[node] = right;
+                return left;
+            }
+            tree[node] = left;
+            return right;
+        }
+
+        int winner() {
+            return tree[0];
+        }
+
+        void replay(int leaf) {
+            int winner = leaf;
+            for (int node = (leaf + k) >> 1; node > 0; node >>= 1) {
+                if (beats(tree[node], winner)) {
+                    int t = tree[node];
+                    tree[node] = winner;
+                    winner = t;
+                }
+            }
+            tree[0] = winner;
+        }
+
+        // 鍵較大者勝；鍵相同時位置較前者勝；已耗盡的 run 一律落敗
+        private boolean beats(int a, int b) {
+            RunReader x = runs[a], y = runs[b];
+            if (x.exhausted) return false;
+            if (y.exhausted) return true;
+            if (x.key != y.key) return x.key > y.key;
+            return x.offset < y.offset;
+        }
+    }
+
+    /**
+     * 依排序結果把原始檔中的整行複製到輸出檔的 RecordSink。
+     * 以 FileChannel 的定位讀取取得每一行，不需把原始檔讀進記憶體。
+     */
+    public static final class LineCopier implements RecordSink, Closeable {
+        private final FileChannel source;
+        private final OutputStream out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        public LineCopier(String dataFile, String outputFile) throws IOException {
+            source = FileChannel.open(new File(dataFile).toPath(), StandardOpenOption.READ);
+            out = new BufferedOutputStream(new FileOutputStream(outputFile), READ_BUFFER);
+            copyLine(0); // 標頭
+        }
+
+        @Override
+        public void accept(long key, long offset) throws IOException {
+            copyLine(offset);
+        }
+
+        private void copyLine(long offset) throws IOException {
+            long position = offset;
+            while (true) {
+                buffer.clear();
+                int n = source.read(buffer, position);
+                if (n <= 0) {
+                    out.write('\n'); // 檔案最後一行沒有換行
+                    return;
+                }
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < n; i++) {
+                    if (bytes[i] == '\n') {
+                        out.write(bytes, 0, i + 1);
+                        return;
+                    }
+                }
+                out.write(bytes, 0, n);
+                position += n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } finally {
+                source.close();
+            }
+        }
+    }
+}
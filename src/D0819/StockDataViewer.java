@@ -2,24 +2,22 @@ package D0819;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.List;
 
 /**
  * 股票資料檢視器，提供 GUI 介面讓使用者查詢並排序股票交易資料。
  * 支援單日或日期區間查詢，按成交量或成交金額排序，並顯示前 N 筆結果。
- * 使用外部合併排序演算法處理大數據量，並測量排序時間。
+ * 以日期分區索引只讀取查詢區間的資料，載入成欄式 (基本型別陣列) 後以有界堆積取前 N 筆，並測量查詢時間。
  */
 public class StockDataViewer extends JFrame {
     private JTextField dateField, startDateField, endDateField, topNField; // 輸入欄位
     private JComboBox<String> sortFieldCombo, queryTypeCombo; // 下拉選單
     private JTextArea resultArea; // 結果顯示區
     private static final String DATA_FILE = "stock_data.csv"; // 資料檔案
-    private static final int CHUNK_SIZE = 100000; // 每個分塊的記錄數
+    private DateIndex index; // 依日期分區的索引，第一次查詢時開啟 (必要時建立)
+    private static final String EXPORT_FILE = "sorted_stock_data.csv"; // 匯出的排序結果
+    private static final int RUN_RECORDS = 1 << 20; // 外部排序每個 run 的記錄數 (每筆 16 位元組)
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     /**
@@ -64,6 +62,10 @@ public class StockDataViewer extends JFrame {
         queryButton.addActionListener(e -> performQuery());
         inputPanel.add(queryButton);
 
+        JButton exportButton = new JButton("匯出排序結果");
+        exportButton.addActionListener(e -> exportSorted());
+        inputPanel.add(exportButton);
+
         // 結果顯示區
         resultArea = new JTextArea();
         resultArea.setEditable(false);
@@ -87,7 +89,9 @@ public class StockDataViewer extends JFrame {
     }
 
     /**
-     * 執行查詢，根據使用者輸入過濾資料並排序，顯示結果和排序時間。
+     * 執行查詢，根據使用者輸入過濾資料並取出前 N 筆，顯示結果和查詢時間。
+     * 第一次查詢時開啟日期索引 (不存在時掃描原始檔建立)，之後每次查詢只讀取日期區間對應的
+     * 位元組範圍並載入成欄式的 StockStore，讀取量與結果大小成正比。
      */
     private void performQuery() {
         try {
@@ -95,29 +99,36 @@ public class StockDataViewer extends JFrame {
             int topN = Integer.parseInt(topNField.getText());
             if (topN <= 0) throw new NumberFormatException("前 N 筆必須為正數");
 
-            // 記錄排序開始時間
-            long startTime = System.nanoTime();
-            List<String[]> sortedData;
-            if (queryTypeCombo.getSelectedItem().equals("單日")) {
-                LocalDate date = LocalDate.parse(dateField.getText(), DATE_FORMATTER);
-                sortedData = externalMergeSort(singleDayFilter(date), sortByVolume);
-            } else {
-                LocalDate startDate = LocalDate.parse(startDateField.getText(), DATE_FORMATTER);
-                LocalDate endDate = LocalDate.parse(endDateField.getText(), DATE_FORMATTER);
-                sortedData = externalMergeSort(dateRangeFilter(startDate, endDate), sortByVolume);
+            LocalDate[] range = queryRange();
+            LocalDate startDate = range[0], endDate = range[1];
+
+            StringBuilder result = new StringBuilder();
+            if (index == null) {
+                long indexStart = System.nanoTime();
+                index = DateIndex.open(DATA_FILE);
+                result.append(String.format("開啟日期索引耗時 %.2f 毫秒\n",
+                        (System.nanoTime() - indexStart) / 1_000_000.0));
             }
-            // 計算排序時間（奈秒轉毫秒）
+            long loadStart = System.nanoTime();
+            StockStore store = index.load((int) startDate.toEpochDay(), (int) endDate.toEpochDay());
+            result.append(String.format("讀取 %d 筆資料耗時 %.2f 毫秒\n",
+                    store.size(), (System.nanoTime() - loadStart) / 1_000_000.0));
+
+            // 記錄查詢開始時間；只顯示前 N 筆，因此以有界堆積取前 N 筆，不排序全部結果
+            long startTime = System.nanoTime();
+            int[] rows = store.top((int) startDate.toEpochDay(), (int) endDate.toEpochDay(), sortByVolume, topN);
+            // 計算查詢時間（奈秒轉毫秒）
             long endTime = System.nanoTime();
-            double sortTimeMs = (endTime - startTime) / 1_000_000.0;
+            double queryTimeMs = (endTime - startTime) / 1_000_000.0;
 
             // 顯示結果
-            StringBuilder result = new StringBuilder();
-            result.append(String.format("排序耗時 %.2f 毫秒\n", sortTimeMs));
+            result.append(String.format("查詢前 %d 筆耗時 %.2f 毫秒\n", topN, queryTimeMs));
             result.append("股票代碼\t股票名稱\t成交量\t成交金額\t交易日期\n");
-            for (int i = 0; i < Math.min(topN, sortedData.size()); i++) {
-                String[] record = sortedData.get(i);
-                result.append(String.format("%s\t%s\t%s\t%s\t%s\n",
-                        record[0], record[1], record[3], record[4], record[2]));
+            for (int i = 0; i < rows.length; i++) {
+                int row = rows[i];
+                result.append(String.format("%s\t%s\t%d\t%d\t%s\n",
+                        store.code(row), store.name(row), store.volume(row), store.amount(row),
+                        store.date(row).format(DATE_FORMATTER)));
             }
             resultArea.setText(result.toString());
         } catch (Exception e) {
@@ -126,206 +137,41 @@ public class StockDataViewer extends JFrame {
     }
 
     /**
-     * 過濾單日資料，僅保留指定日期的記錄。
-     * @param date 查詢日期
-     * @return 過濾後的資料列表
-     */
-    private List<String[]> singleDayFilter(LocalDate date) throws IOException {
-        List<String[]> filtered = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(
-                        new FileInputStream(DATA_FILE), StandardCharsets.UTF_8))) {
-            reader.readLine(); // 跳過標頭
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[2].equals(date.format(DATE_FORMATTER))) {
-                    filtered.add(parts);
-                }
-            }
-        }
-        return filtered;
-    }
-
-    /**
-     * 過濾日期區間資料，保留指定範圍內的記錄。
-     * @param startDate 開始日期
-     * @param endDate 結束日期
-     * @return 過濾後的資料列表
-     */
-    private List<String[]> dateRangeFilter(LocalDate startDate, LocalDate endDate) throws IOException {
-        List<String[]> filtered = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(
-                        new FileInputStream(DATA_FILE), StandardCharsets.UTF_8))) {
-            reader.readLine(); // 跳過標頭
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                LocalDate date = LocalDate.parse(parts[2], DATE_FORMATTER);
-                if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
-                    filtered.add(parts);
-                }
-            }
-        }
-        return filtered;
-    }
-
-    /**
-     * 外部合併排序演算法，適用於大數據量。
-     * 邏輯：
-     * 1. 將資料分割成小塊（每塊最多 CHUNK_SIZE 筆），各塊在記憶體中排序。
-     * 2. 將排序後的塊寫入臨時檔案。
-     * 3. 使用優先級隊列合併所有臨時檔案，生成最終排序結果。
+     * 匯出日期範圍內的完整排序結果到 EXPORT_FILE。
+     * 邏輯：以 ExternalSorter 串流掃描原始檔，排序後依位元組位置把原始的整行複製到輸出檔。
      * 理由：
-     * - 當資料量過大（例如 36,000,000 筆）無法全部載入記憶體時，外部排序是必要選擇。
-     * - 每塊大小 (CHUNK_SIZE=100,000) 是基於記憶體限制的折衷，確保單塊可載入記憶體。
-     * - 使用優先級隊列進行合併，時間複雜度為 O(N log k)，其中 N 為總記錄數，k 為塊數。
-     * @param data 待排序資料
-     * @param sortByVolume 是否按成交量排序（否則按成交金額）
-     * @return 排序後的資料列表
+     * - 不載入 StockStore，記憶體用量固定為 RUN_RECORDS 筆二進位記錄，檔案比堆積大也能排序。
      */
-    private List<String[]> externalMergeSort(List<String[]> data, boolean sortByVolume) throws IOException {
-        // 如果資料量小於等於 CHUNK_SIZE，直接使用記憶體內合併排序
-        if (data.size() <= CHUNK_SIZE) {
-            return mergeSort(data, sortByVolume);
-        }
-
-        // 分割資料成多個塊並排序
-        List<File> tempFiles = new ArrayList<>();
-        for (int i = 0; i < data.size(); i += CHUNK_SIZE) {
-            // 提取子塊，範圍為 i 到 i+CHUNK_SIZE
-            List<String[]> chunk = data.subList(i, Math.min(i + CHUNK_SIZE, data.size()));
-            // 對子塊進行記憶體內合併排序
-            List<String[]> sortedChunk = mergeSort(new ArrayList<>(chunk), sortByVolume);
-            // 創建臨時檔案儲存排序後的塊
-            File tempFile = File.createTempFile("stock_chunk_", ".csv");
-            tempFile.deleteOnExit(); // 程式結束時自動刪除
-            try (BufferedWriter writer = new BufferedWriter(
-                    new OutputStreamWriter(
-                            new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
-                for (String[] record : sortedChunk) {
-                    writer.write(String.join(",", record) + "\n");
-                }
-            }
-            tempFiles.add(tempFile);
-        }
-
-        // 使用優先級隊列合併排序後的塊
-        // 邏輯：
-        // 1. 為每個臨時檔案開啟一個 BufferedReader，讀取第一筆記錄。
-        // 2. 將每筆記錄放入優先級隊列，按指定欄位（成交量或金額）排序。
-        // 3. 每次從隊列取出最大值，加入結果，並從對應檔案讀取下一筆。
-        // 4. 重複直到所有記錄處理完畢。
-        // 理由：
-        // - 優先級隊列確保每次取出最小（或最大，視排序方向）記錄，模擬 K 路合併。
-        // - 僅保持 k 筆記錄在記憶體中（k 為塊數），大幅降低記憶體使用量。
-        PriorityQueue<QueueEntry> queue = new PriorityQueue<>((a, b) -> {
-            long valA = Long.parseLong(a.record[sortByVolume ? 3 : 4]);
-            long valB = Long.parseLong(b.record[sortByVolume ? 3 : 4]);
-            return Long.compare(valB, valA); // 降序排序
-        });
-
-        List<BufferedReader> readers = new ArrayList<>();
-        for (File tempFile : tempFiles) {
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(
-                            new FileInputStream(tempFile), StandardCharsets.UTF_8));
-            String line = reader.readLine();
-            if (line != null) {
-                queue.offer(new QueueEntry(line.split(","), reader));
-            }
-            readers.add(reader);
-        }
-
-        List<String[]> result = new ArrayList<>();
-        while (!queue.isEmpty()) {
-            QueueEntry entry = queue.poll();
-            result.add(entry.record);
-            BufferedReader reader = entry.reader;
-            String line = reader.readLine();
-            if (line != null) {
-                queue.offer(new QueueEntry(line.split(","), reader));
-            }
-        }
-
-        // 清理資源
-        for (BufferedReader reader : readers) {
-            reader.close();
-        }
-        for (File tempFile : tempFiles) {
-            tempFile.delete();
-        }
-
-        return result;
-    }
-
-    /**
-     * 記憶體內合併排序，用於排序單個小塊資料。
-     * 邏輯：
-     * 1. 使用分治法將資料分成兩半，遞迴排序。
-     * 2. 合併兩個已排序的子列表，生成完整排序結果。
-     * 理由：
-     * - 合併排序時間複雜度為 O(n log n)，穩定且適合鏈結結構。
-     * - 在外部排序中，每塊資料量小，適合記憶體內快速排序。
-     * @param data 待排序資料
-     * @param sortByVolume 是否按成交量排序
-     * @return 排序後的資料列表
-     */
-    private List<String[]> mergeSort(List<String[]> data, boolean sortByVolume) {
-        if (data.size() <= 1) return data;
-
-        int mid = data.size() / 2;
-        List<String[]> left = mergeSort(data.subList(0, mid), sortByVolume);
-        List<String[]> right = mergeSort(data.subList(mid, data.size()), sortByVolume);
-
-        return merge(left, right, sortByVolume);
-    }
-
-    /**
-     * 合併兩個已排序的子列表。
-     * 邏輯：
-     * 1. 比較兩個列表的元素，按指定欄位（成交量或金額）合併。
-     * 2. 確保降序排列（較大值優先）。
-     * 理由：
-     * - 合併是合併排序的核心，確保穩定性和正確性。
-     * - 使用索引遍歷避免額外記憶體分配，提高效率。
-     * @param left 左子列表
-     * @param right 右子列表
-     * @param sortByVolume 是否按成交量排序
-     * @return 合併後的排序列表
-     */
-    private List<String[]> merge(List<String[]> left, List<String[]> right, boolean sortByVolume) {
-        List<String[]> result = new ArrayList<>();
-        int i = 0, j = 0;
-        int fieldIndex = sortByVolume ? 3 : 4; // 成交量或金額的欄位索引
-
-        while (i < left.size() && j < right.size()) {
-            long valueLeft = Long.parseLong(left.get(i)[fieldIndex]);
-            long valueRight = Long.parseLong(right.get(j)[fieldIndex]);
-            if (valueLeft >= valueRight) { // 降序排序
-                result.add(left.get(i++));
-            } else {
-                result.add(right.get(j++));
+    private void exportSorted() {
+        try {
+            boolean sortByVolume = sortFieldCombo.getSelectedItem().equals("成交量");
+            LocalDate[] range = queryRange();
+            long startTime = System.nanoTime();
+            long count;
+            try (ExternalSorter.LineCopier copier = new ExternalSorter.LineCopier(DATA_FILE, EXPORT_FILE)) {
+                count = new ExternalSorter(RUN_RECORDS, null).sort(DATA_FILE,
+                        (int) range[0].toEpochDay(), (int) range[1].toEpochDay(), sortByVolume, copier);
             }
+            double sortTimeMs = (System.nanoTime() - startTime) / 1_000_000.0;
+            resultArea.setText(String.format("已匯出 %d 筆排序結果到 %s，耗時 %.2f 毫秒\n",
+                    count, EXPORT_FILE, sortTimeMs));
+        } catch (Exception e) {
+            resultArea.setText("錯誤：" + e.getMessage());
         }
-
-        result.addAll(left.subList(i, left.size()));
-        result.addAll(right.subList(j, right.size()));
-        return result;
     }
 
     /**
-     * 輔助類，用於優先級隊列儲存臨時檔案的記錄和對應的讀取器。
+     * 依查詢類型讀取日期欄位。
+     * @return {開始日期, 結束日期}，單日查詢時兩者相同
      */
-    private static class QueueEntry {
-        String[] record; // 當前記錄
-        BufferedReader reader; // 檔案讀取器
-
-        QueueEntry(String[] record, BufferedReader reader) {
-            this.record = record;
-            this.reader = reader;
+    private LocalDate[] queryRange() {
+        if (queryTypeCombo.getSelectedItem().equals("單日")) {
+            LocalDate date = LocalDate.parse(dateField.getText(), DATE_FORMATTER);
+            return new LocalDate[]{date, date};
         }
+        return new LocalDate[]{
+                LocalDate.parse(startDateField.getText(), DATE_FORMATTER),
+                LocalDate.parse(endDateField.getText(), DATE_FORMATTER)};
     }
 
     /**
@@ -0,0 +1,190 @@
+package D0819;
+
+import StockCore.CsvScanner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 欄式 (columnar) 的股票交易資料，每個欄位是一個基本型別陣列，列以索引 (row) 表示。
+ * 股票代碼與名稱以字典編碼成 int，交易日期存成 epoch day，成交量與成交金額存成 long，
+ * 每列約 24 位元組，載入後的查詢與排序都只比較基本型別，不再解析字串。
+ */
+public final class StockStore implements CsvScanner.RowSink {
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int ROWS_PER_TASK = 1 << 18; // top 查詢時每個平行工作掃描的列數
+
+    private int size;
+    private int[] codeId = new int[INITIAL_CAPACITY];   // 股票代碼的字典 ID
+    private int[] nameId = new int[INITIAL_CAPACITY];   // 股票名稱的字典 ID
+    private int[] epochDay = new int[INITIAL_CAPACITY]; // 交易日期 (LocalDate.toEpochDay)
+    private long[] volume = new long[INITIAL_CAPACITY]; // 成交量
+    private long[] amount = new long[INITIAL_CAPACITY]; // 成交金額
+
+    private final Dictionary codes = new Dictionary();
+    private final Dictionary names = new Dictionary();
+
+    StockStore() {
+    }
+
+    /**
+     * 讀取檔案中 [start, end) 範圍的資料列。以 CsvScanner 記憶體映射後分段平行解析，
+     * 每個區段先載入成自己的 StockStore，最後依檔案順序合併。
+     * @param end 結束位置，-1 表示檔案結尾
+     * @param header 範圍中的第一行是否為標頭 (略過)
+     */
+    static StockStore load(String file, long start, long end, boolean header) throws IOException {
+        List<StockStore> parts = CsvScanner.scan(Paths.get(file), start, end, header,
+                StockStore::new, ForkJoinPool.commonPool());
+        StockStore store = concat(parts);
+        store.trim();
+        return store;
+    }
+
+    /**
+     * CsvScanner 的資料列回呼 (載入時使用)。欄位順序：股票代碼,股票名稱,交易日期,成交量,成交金額,...
+     */
+    @Override
+    public void row(CsvScanner.Row row) {
+        if (row.fieldCount() < 5) { // 與匯出 (ExternalSorter) 相同，欄位不足的列視為錯誤
+            throw new IllegalArgumentException("欄位不足，無法讀取成交量與成交金額 (位置 " + row.offset() + ")");
+        }
+        add(codes.id(row, 0), names.id(row, 1), CsvScanner.epochDay(row.date(2)),
+                row.parseLong(3), row.parseLong(4));
+    }
+
+    // 依序串接各區段，各區段的字典 ID 重新對應到合併後的字典
+    private static StockStore concat(List<StockStore> parts) {
+        if (parts.size() == 1) return parts.get(0);
+        StockStore store = new StockStore();
+        for (StockStore part : parts) {
+            int[] codeMap = store.codes.merge(part.codes);
+            int[] nameMap = store.names.merge(part.names);
+            for (int row = 0; row < part.size; row++) {
+                store.add(codeMap[part.codeId[row]], nameMap[part.nameId[row]], part.epochDay[row],
+                        part.volume[row], part.amount[row]);
+            }
+        }
+        return store;
+    }
+
+    void add(int code, int name, int day, long vol, long amt) {
+        if (size == codeId.length) {
+            int capacity = size * 2;
+            codeId = Arrays.copyOf(codeId, capacity);
+            nameId = Arrays.copyOf(nameId, capacity);
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+            amount = Arrays.copyOf(amount, capacity);
+        }
+        codeId[size] = code;
+        nameId[size] = name;
+        epochDay[size] = day;
+        volume[size] = vol;
+        amount[size] = amt;
+        size++;
+    }
+
+    /**
+     * 字串字典：值與 ID 一一對應。
+     * 資料依股票連續排列，相鄰的列通常是同一檔股票，先和上一筆的位元組比較可省下解碼與查詢。
+     */
+    private static final class Dictionary {
+        private final ArrayList<String> values = new ArrayList<>();
+        private final HashMap<String, Integer> ids = new HashMap<>();
+        private byte[] last = new byte[0];
+        private int lastId = -1;
+
+        int id(CsvScanner.Row row, int field) {
+            if (lastId >= 0 && row.fieldEquals(field, last)) return lastId;
+            last = row.bytes(field);
+            lastId = intern(new String(last, StandardCharsets.UTF_8));
+            return lastId;
+        }
+
+        private int intern(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                values.add(value);
+                ids.put(value, id);
+            }
+            return id;
+        }
+
+        // 把 other 的值併入，回傳 other 的 ID 對應到本字典的 ID
+        int[] merge(Dictionary other) {
+            int[] map = new int[other.values.size()];
+            for (int i = 0; i < map.length; i++) map[i] = intern(other.values.get(i));
+            return map;
+        }
+
+        String get(int id) { return values.get(id); }
+    }
+
+    private void trim() {
+        codeId = Arrays.copyOf(codeId, size);
+        nameId = Arrays.copyOf(nameId, size);
+        epochDay = Arrays.copyOf(epochDay, size);
+        volume = Arrays.copyOf(volume, size);
+        amount = Arrays.copyOf(amount, size);
+    }
+
+    public int size() { return size; }
+
+    public String code(int row) { return codes.get(codeId[row]); }
+
+    public String name(int row) { return names.get(nameId[row]); }
+
+    public int epochDay(int row) { return epochDay[row]; }
+
+    public LocalDate date(int row) { return LocalDate.ofEpochDay(epochDay[row]); }
+
+    public long volume(int row) { return volume[row]; }
+
+    public long amount(int row) { return amount[row]; }
+
+    /**
+     * 排序鍵所在的欄位 (不複製，請勿修改)。
+     */
+    long[] column(boolean byVolume) { return byVolume ? volume : amount; }
+
+    /**
+     * 找出交易日期在 [fromDay, toDay] 之間、成交量或成交金額最大的 n 列。
+     * 邏輯：把所有列切成固定大小的區段平行掃描，每個區段用自己的 TopN，最後合併。
+     * 理由：
+     * - 只需一次掃描與 O(n) 記憶體，不需選出並排序所有符合條件的列。
+     * - 結果與把符合條件的列全部由大到小穩定排序後取前 n 筆相同 (數值相同時依檔案順序)。
+     * @return 由大到小排列的列索引，最多 n 筆
+     */
+    public int[] top(int fromDay, int toDay, boolean byVolume, int n) {
+        long[] key = column(byVolume);
+        int tasks = (size + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        TopN best = IntStream.range(0, tasks).parallel().mapToObj(task -> {
+            TopN local = new TopN(n);
+            int end = (int) Math.min(size, (long) (task + 1) * ROWS_PER_TASK);
+            for (int row = task * ROWS_PER_TASK; row < end; row++) {
+                int day = epochDay[row];
+                if (day >= fromDay && day <= toDay) local.offer(key[row], row);
+            }
+            return local;
+        }).reduce(new TopN(n), (a, b) -> {
+            TopN merged = new TopN(n);
+            merged.addAll(a);
+            merged.addAll(b);
+            return merged;
+        });
+        long[] ids = best.ids();
+        int[] rows = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) rows[i] = (int) ids[i];
+        return rows;
+    }
+}
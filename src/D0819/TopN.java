@@ -0,0 +1,109 @@
+package D0819;
+
+import java.util.Arrays;
+
+/**
+ * 只保留最大的 N 筆 (鍵, ID) 的有界最小堆積。
+ * 邏輯：堆積頂端是目前保留的資料中最小的一筆；新資料比頂端大時取代頂端並下沉。
+ * 理由：
+ * - 只需掃描一次，記憶體 O(N)，每筆 O(log N)；N 很小 (例如前 10 名) 時幾乎等於線性掃描。
+ * - 鍵相同時 ID 較小者較大，結果與穩定排序後取前 N 筆相同。
+ * 可以每條執行緒各用一個 TopN，最後以 addAll 合併。
+ */
+public final class TopN {
+    private final int limit;
+    private long[] keys;
+    private long[] ids;
+    private int size;
+
+    /**
+     * @param limit 保留的筆數 N
+     */
+    public TopN(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("N 必須為正數");
+        this.limit = limit;
+        int capacity = Math.min(limit, 16); // N 可能很大，依實際筆數成長
+        keys = new long[capacity];
+        ids = new long[capacity];
+    }
+
+    public void offer(long key, long id) {
+        if (size < limit) {
+            if (size == keys.length) {
+                int capacity = (int) Math.min(limit, (long) size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            keys[size] = key;
+            ids[size] = id;
+            siftUp(size++);
+        } else if (greater(key, id, keys[0], ids[0])) {
+            keys[0] = key;
+            ids[0] = id;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * 把另一個 TopN 的內容併入 (用於合併各執行緒的結果)。
+     */
+    public void addAll(TopN other) {
+        for (int i = 0; i < other.size; i++) offer(other.keys[i], other.ids[i]);
+    }
+
+    public int size() { return size; }
+
+    /**
+     * @return 由大到小排列的 ID (不改變堆積內容)
+     */
+    public long[] ids() {
+        long[] k = Arrays.copyOf(keys, size);
+        long[] d = Arrays.copyOf(ids, size);
+        long[] result = new long[size];
+        // 以堆積排序的方式依序取出最小值，從結果尾端往前填
+        for (int n = size; n > 0; n--) {
+            result[n - 1] = d[0];
+            k[0] = k[n - 1];
+            d[0] = d[n - 1];
+            siftDown(k, d, 0, n - 1);
+        }
+        return result;
+    }
+
+    // 鍵較大者較大；鍵相同時 ID 較小者較大 (即較早出現者優先)
+    private static boolean greater(long keyA, long idA, long keyB, long idB) {
+        return keyA != keyB ? keyA > keyB : idA < idB;
+    }
+
+    private void siftUp(int i) {
+        long key = keys[i], id = ids[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!greater(keys[parent], ids[parent], key, id)) break;
+            keys[i] = keys[parent];
+            ids[i] = ids[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        ids[i] = id;
+    }
+
+    private void siftDown(int i, int n) {
+        siftDown(keys, ids, i, n);
+    }
+
+    private static void siftDown(long[] keys, long[] ids, int i, int n) {
+        long key = keys[i], id = ids[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && greater(keys[child], ids[child], keys[child + 1], ids[child + 1])) child++;
+            if (!greater(key, id, keys[child], ids[child])) break;
+            keys[i] = keys[child];
+            ids[i] = ids[child];
+            i = child;
+        }
+        keys[i] = key;
+        ids[i] = id;
+    }
+}
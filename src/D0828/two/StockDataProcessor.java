@@ -1,5 +1,7 @@
 package D0828.two;
 
+import StockCore.CsvScanner;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -138,7 +140,7 @@ public class StockDataProcessor extends JFrame {
     }
 
     // Normalize date to yyyy/MM/dd
-    private String normalizeDate(String date) {
+    private static String normalizeDate(String date) {
         String[] parts = date.split(Pattern.quote("/"));
         if (parts.length == 3) {
             return String.format("%04d/%02d/%02d", Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
@@ -153,37 +155,52 @@ public class StockDataProcessor extends JFrame {
             JFileChooser fc = new JFileChooser();
             if (fc.showOpenDialog(null) == JFileChooser.APPROVE_OPTION) {
                 File file = fc.getSelectedFile();
-                try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-                    String line;
-                    br.readLine(); // Skip header
-                    while ((line = br.readLine()) != null) {
-                        if (line.trim().isEmpty()) continue;
-                        String[] parts = line.split(",");
-                        if (parts.length < 8) continue;
-                        String symbol = parts[0].trim();
-                        String date = normalizeDate(parts[1].trim());
-                        String time = parts[2].trim();
-                        double open = Double.parseDouble(parts[3].trim());
-                        double high = Double.parseDouble(parts[4].trim());
-                        double low = Double.parseDouble(parts[5].trim());
-                        double close = Double.parseDouble(parts[6].trim());
-                        long volume = Long.parseLong(parts[7].trim());
-
-                        StockData data = new StockData(symbol, date, time, open, high, low, close, volume);
-                        dataMap.computeIfAbsent(date, k -> new ArrayList<>()).add(data);
+                try {
+                    // Memory-map the file and parse newline-aligned segments in parallel; merge in file order
+                    List<StockDataLoader> parts = CsvScanner.scan(file.toPath(), true, StockDataLoader::new);
+                    for (StockDataLoader part : parts) {
+                        for (StockData data : part.rows) {
+                            dataMap.computeIfAbsent(data.date, k -> new ArrayList<>()).add(data);
+                        }
                     }
                     // Sort each day's list by time
                     for (List<StockData> list : dataMap.values()) {
                         list.sort(Comparator.comparing(d -> d.time));
                     }
                     JOptionPane.showMessageDialog(null, "資料載入成功！");
-                } catch (IOException | NumberFormatException ex) {
+                } catch (IOException | IllegalArgumentException ex) {
                     JOptionPane.showMessageDialog(null, "載入檔案時發生錯誤: " + ex.getMessage());
                 }
             }
         }
     }
 
+    // Parses rows (Symbol,Date,Time,Open,High,Low,Close,Volume) straight from bytes for one file segment
+    static class StockDataLoader implements CsvScanner.RowSink {
+        final List<StockData> rows = new ArrayList<>();
+        private byte[] lastSymbol = new byte[0];
+        private String lastSymbolText;
+        private byte[] lastDate = new byte[0];
+        private String lastDateText; // normalizeDate result, the same key the queries look up
+
+        @Override
+        public void row(CsvScanner.Row row) {
+            if (row.fieldCount() < 8) return;
+            // Consecutive rows usually share symbol and date, so reuse the previous strings
+            if (lastSymbolText == null || !row.fieldEquals(0, lastSymbol)) {
+                lastSymbol = row.bytes(0);
+                lastSymbolText = row.string(0);
+            }
+            if (lastDateText == null || !row.fieldEquals(1, lastDate)) {
+                lastDate = row.bytes(1);
+                lastDateText = normalizeDate(row.string(1));
+            }
+            rows.add(new StockData(lastSymbolText, lastDateText, row.string(2),
+                    row.parseDouble(3), row.parseDouble(4), row.parseDouble(5), row.parseDouble(6),
+                    row.parseLong(7)));
+        }
+    }
+
     // Function 3: Single day query
     class SingleDayQueryListener implements ActionListener {
         @Override
@@ -0,0 +1,84 @@
+package GraphCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 以「逐一移除頂點再檢查連通性」求關節點的暴力基準，用來在大圖上驗證 Biconnectivity。
+ *
+ * 不複製圖：移除 v 只是在 BFS 時跳過 v。訪問集合是 long[] 位元集合，
+ * 每條執行緒持有一份並在每次檢查前清空，V 次彼此獨立的檢查平行分配到 ForkJoinPool。
+ * 總成本仍為 O(V * (V + E))，但不再為每個頂點配置整張圖。
+ */
+public final class ArticulationBaseline {
+
+    private static final int VERTICES_PER_TASK = 8; // 每次檢查就是一次完整 BFS，小區段即可平衡負載
+
+    private ArticulationBaseline() {
+    }
+
+    public static boolean[] find(CsrGraph graph) {
+        return find(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @return result[v] 為 true 表示移除 v 會讓 v 所在的連通塊分裂
+     */
+    public static boolean[] find(CsrGraph graph, ForkJoinPool pool) {
+        if (graph.directed) throw new IllegalArgumentException("關節點只適用於無向圖");
+        final int n = graph.numVertices;
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        ConnectedComponents components = new ConnectedComponents(graph, pool);
+        boolean[] result = new boolean[n];
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+
+        Parallel.forRange(pool, 0, n, VERTICES_PER_TASK, (lo, hi) -> {
+            Scratch s = scratch.get();
+            for (int v = lo; v < hi; v++) {
+                int size = components.sizeOf(components.componentOf(v));
+                int start = -1;
+                for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                    if (targets[a] != v) {
+                        start = targets[a];
+                        break;
+                    }
+                }
+                if (start < 0 || size <= 2) continue;
+                result[v] = s.reachableWithout(offsets, targets, start, v) < size - 1;
+            }
+        });
+        return result;
+    }
+
+    // 每條執行緒的工作陣列，在多次檢查之間重複使用
+    private static final class Scratch {
+        final long[] visited;
+        final int[] queue;
+
+        Scratch(int n) {
+            visited = new long[(n + 63) >>> 6];
+            queue = new int[n];
+        }
+
+        // 從 start 出發、不經過 removed 的 BFS，回傳可到達的頂點數
+        int reachableWithout(int[] offsets, int[] targets, int start, int removed) {
+            Arrays.fill(visited, 0L);
+            visited[removed >>> 6] |= 1L << removed;
+            visited[start >>> 6] |= 1L << start;
+            int head = 0, tail = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                    int w = targets[a];
+                    long bit = 1L << w;
+                    if ((visited[w >>> 6] & bit) != 0) continue;
+                    visited[w >>> 6] |= bit;
+                    queue[tail++] = w;
+                }
+            }
+            return tail;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package GraphCore;
+
+import java.util.Arrays;
+
+/**
+ * 以迭代 (顯式堆疊) 的 Tarjan 演算法，一次 DFS 同時求出無向圖的
+ * 關節點 (articulation point)、橋 (bridge) 與雙連通元件 (biconnected component)。
+ *
+ * 不使用遞迴，數百萬個頂點的長鏈也不會 StackOverflowError。
+ * 所有狀態都是 int[]：每個頂點保存下一個要檢查的 arc 位置 (cursor)，
+ * 邊堆疊保存尚未歸屬元件的邊，DFS 從子節點返回時依 low 值切出元件。
+ *
+ * 平行邊視為不同的邊 (回到父節點的第二條平行邊是回邊)，自環會被忽略。
+ */
+public final class Biconnectivity {
+
+    private final int numVertices;
+    private final boolean[] articulation;
+    private final int articulationCount;
+    private final int[] bridgeFrom;
+    private final int[] bridgeTo;
+    private final int bridgeCount;
+    private final int[] componentOffsets; // 元件 c 的邊位於 componentOffsets[c] .. componentOffsets[c + 1]
+    private final int[] componentFrom;
+    private final int[] componentTo;
+
+    /**
+     * @param graph 無向圖 (每條邊有兩個方向的 arc)
+     */
+    public Biconnectivity(CsrGraph graph) {
+        if (graph.directed) throw new IllegalArgumentException("雙連通分析只適用於無向圖");
+        final int n = graph.numVertices;
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        this.numVertices = n;
+
+        int[] disc = new int[n];
+        int[] low = new int[n];
+        int[] parent = new int[n];
+        int[] cursor = new int[n];
+        int[] treeArc = new int[n];        // 從父節點走到此頂點的 arc
+        boolean[] parentSkipped = new boolean[n];
+        int[] stack = new int[n];
+        Arrays.fill(disc, -1);
+
+        // 每條無向邊恰好入堆疊一次 (樹邊在往下走時、回邊在從較深的一端看到時)
+        int maxEdges = targets.length / 2 + 1;
+        int[] edgeFrom = new int[maxEdges];
+        int[] edgeTo = new int[maxEdges];
+        int[] edgeArc = new int[maxEdges];
+        int edgeTop = 0;
+
+        boolean[] ap = new boolean[n];
+        int apCount = 0;
+        int[] bFrom = new int[Math.max(1, n - 1)];
+        int[] bTo = new int[Math.max(1, n - 1)];
+        int bCount = 0;
+        int[] compOffsets = new int[n + 1]; // 元件數不超過 n - 1
+        int[] compFrom = new int[maxEdges];
+        int[] compTo = new int[maxEdges];
+        int compCount = 0, compEdges = 0;
+        int time = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (disc[root] != -1) continue;
+            disc[root] = low[root] = time++;
+            parent[root] = -1;
+            cursor[root] = offsets[root];
+            int rootChildren = 0;
+            int top = 0;
+            stack[top++] = root;
+
+            while (top > 0) {
+                int u = stack[top - 1];
+                int end = offsets[u + 1];
+                int a = cursor[u];
+                boolean descended = false;
+                for (; a < end; a++) {
+                    int v = targets[a];
+                    if (v == u) continue;
+                    if (v == parent[u] && !parentSkipped[u]) {
+                        parentSkipped[u] = true;
+                        continue;
+                    }
+                    if (disc[v] == -1) {
+                        edgeFrom[edgeTop] = u;
+                        edgeTo[edgeTop] = v;
+                        edgeArc[edgeTop++] = a;
+                        parent[v] = u;
+                        treeArc[v] = a;
+                        disc[v] = low[v] = time++;
+                        cursor[v] = offsets[v];
+                        stack[top++] = v;
+                        if (u == root) rootChildren++;
+                        descended = true;
+                        a++;
+                        break;
+                    }
+                    if (disc[v] < disc[u]) {
+                        // 回邊 (指向祖先)
+                        if (disc[v] < low[u]) low[u] = disc[v];
+                        edgeFrom[edgeTop] = u;
+                        edgeTo[edgeTop] = v;
+                        edgeArc[edgeTop++] = a;
+                    }
+                    // disc[v] > disc[u]：後代從另一端看過的回邊，已經入堆疊
+                }
+                cursor[u] = a;
+                if (descended) continue;
+
+                // u 的所有鄰居都處理完，返回父節點
+                top--;
+                int p = parent[u];
+                if (p < 0) continue;
+                if (low[u] < low[p]) low[p] = low[u];
+                if (low[u] > disc[p]) {
+                    bFrom[bCount] = p;
+                    bTo[bCount++] = u;
+                }
+                if (low[u] >= disc[p]) {
+                    if (p != root && !ap[p]) {
+                        ap[p] = true;
+                        apCount++;
+                    }
+                    // 切出以樹邊 p-u 為首的雙連通元件
+                    int arc;
+                    do {
+                        edgeTop--;
+                        arc = edgeArc[edgeTop];
+                        compFrom[compEdges] = edgeFrom[edgeTop];
+                        compTo[compEdges++] = edgeTo[edgeTop];
+                    } while (arc != treeArc[u]);
+                    compOffsets[++compCount] = compEdges;
+                }
+            }
+            if (rootChildren > 1) {
+                ap[root] = true;
+                apCount++;
+            }
+        }
+
+        this.articulation = ap;
+        this.articulationCount = apCount;
+        this.bridgeFrom = Arrays.copyOf(bFrom, bCount);
+        this.bridgeTo = Arrays.copyOf(bTo, bCount);
+        this.bridgeCount = bCount;
+        this.componentOffsets = Arrays.copyOf(compOffsets, compCount + 1);
+        this.componentFrom = Arrays.copyOf(compFrom, compEdges);
+        this.componentTo = Arrays.copyOf(compTo, compEdges);
+    }
+
+    public int numVertices() { return numVertices; }
+
+    public boolean isArticulationPoint(int v) { return articulation[v]; }
+
+    public int articulationPointCount() { return articulationCount; }
+
+    /**
+     * 所有關節點，依 ID 遞增排列。
+     */
+    public int[] articulationPoints() {
+        int[] result = new int[articulationCount];
+        int k = 0;
+        for (int v = 0; v < numVertices; v++) {
+            if (articulation[v]) result[k++] = v;
+        }
+        return result;
+    }
+
+    public int bridgeCount() { return bridgeCount; }
+
+    /**
+     * 第 i 條橋的兩端 (bridgeSource 為 DFS 樹中的父節點)。
+     */
+    public int bridgeSource(int i) { return bridgeFrom[i]; }
+    public int bridgeTarget(int i) { return bridgeTo[i]; }
+
+    /**
+     * 雙連通元件數 (不含孤立頂點)。每條非自環的邊恰好屬於一個元件。
+     */
+    public int componentCount() { return componentOffsets.length - 1; }
+
+    /**
+     * 元件 c 的邊位於 componentEdgeStart(c) .. componentEdgeEnd(c) 之間，
+     * 以 componentEdgeSource / componentEdgeTarget 取得兩端。
+     */
+    public int componentEdgeStart(int c) { return componentOffsets[c]; }
+    public int componentEdgeEnd(int c) { return componentOffsets[c + 1]; }
+    public int componentEdgeSource(int i) { return componentFrom[i]; }
+    public int componentEdgeTarget(int i) { return componentTo[i]; }
+}
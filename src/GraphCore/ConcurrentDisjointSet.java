@@ -0,0 +1,64 @@
+package GraphCore;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 可由多條執行緒同時使用的無鎖 (lock-free) 並查集。
+ *
+ * parent 存放在 AtomicIntegerArray 中，所有修改都透過 compareAndSet：
+ * - find 以迴圈做路徑減半 (path halving)，把 x 改指向祖父節點；CAS 失敗代表別的執行緒
+ *   已經改過，直接沿新的 parent 繼續即可，不影響正確性。
+ * - union 固定把 ID 較小的根接到 ID 較大的根底下，連結方向全域一致，不會形成環；
+ *   CAS 失敗代表該根已被其他執行緒合併，重新尋找根後再試。
+ */
+public final class ConcurrentDisjointSet {
+
+    private final AtomicIntegerArray parent;
+
+    public ConcurrentDisjointSet(int size) {
+        parent = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) parent.set(i, i);
+    }
+
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) return x;
+            int grandparent = parent.get(p);
+            if (p != grandparent) parent.compareAndSet(x, p, grandparent);
+            x = grandparent;
+        }
+    }
+
+    /**
+     * 合併 x 與 y 所在的集合。
+     * @return 這次呼叫實際完成了合併則為 true；並行呼叫時每次合併只有一個呼叫者得到 true
+     */
+    public boolean union(int x, int y) {
+        while (true) {
+            int rx = find(x);
+            int ry = find(y);
+            if (rx == ry) return false;
+            if (rx > ry) {
+                int t = rx;
+                rx = ry;
+                ry = t;
+            }
+            if (parent.compareAndSet(rx, rx, ry)) return true;
+        }
+    }
+
+    /**
+     * 在並行合併進行中也能得到正確答案：兩個根不同時，確認 x 的根仍然是根才回傳 false。
+     */
+    public boolean connected(int x, int y) {
+        while (true) {
+            int rx = find(x);
+            int ry = find(y);
+            if (rx == ry) return true;
+            if (parent.get(rx) == rx) return false;
+        }
+    }
+
+    public int size() { return parent.length(); }
+}
@@ -0,0 +1,171 @@
+package GraphCore;
+
+import java.util.List;
+
+/**
+ * 不可變的 CSR (Compressed Sparse Row) 圖，各圖形模組共用的快照格式。
+ *
+ * 頂點 v 的出邊 (arc) 位於 offsets[v] .. offsets[v + 1] 之間，
+ * 終點存放在 targets[]，權重存放在 weights[]，全部是基本型別陣列，
+ * 走訪鄰居時是連續的記憶體存取，也沒有 Integer 裝箱。
+ * 無向圖的每條邊會存成兩個方向的 arc。
+ *
+ * 使用者為 BFS/DFS (GraphTraversal、ParallelBfs)、Tarjan (Biconnectivity、
+ * StronglyConnectedComponents)、連通元件，以及透過 exportEdges() 取得帶權邊的
+ * MinimumSpanningForest.of()；快照來源為 D0805.GraphSimulator.toCsrGraph()、
+ * GraphGenerator、EdgeListLoader 以及 fromAdjacencyLists() (D0811 的 List&lt;List&lt;Integer&gt;&gt;)。
+ * 權重以 float 儲存，因此 D0812 使用 double 權重的最短路徑引擎 (FastDijkstra、
+ * ContractionHierarchy 等) 為了保持精度，仍使用自己的鄰接串列，不經過此格式。
+ */
+public final class CsrGraph {
+
+    final int numVertices;
+    final int[] offsets;
+    final int[] targets;
+    final float[] weights;
+    final boolean directed;
+
+    private CsrGraph(int numVertices, int[] offsets, int[] targets, float[] weights, boolean directed) {
+        this.numVertices = numVertices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.directed = directed;
+    }
+
+    /**
+     * 由邊陣列建立 CSR 圖：先計算每個頂點的出度，再一次填入 (counting sort)。
+     * @param numVertices 頂點數，頂點 ID 為 0..numVertices-1
+     * @param from 每條邊的起點
+     * @param to 每條邊的終點
+     * @param weight 每條邊的權重，null 表示全部為 1
+     * @param edgeCount 使用 from/to/weight 的前幾個元素
+     * @param directed false 時每條邊會加入兩個方向
+     */
+    public static CsrGraph fromEdges(int numVertices, int[] from, int[] to, float[] weight,
+                                     int edgeCount, boolean directed) {
+        int[] offsets = new int[numVertices + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[from[e] + 1]++;
+            if (!directed) offsets[to[e] + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int arcs = offsets[numVertices];
+        int[] targets = new int[arcs];
+        float[] weights = new float[arcs];
+        int[] cursor = new int[numVertices];
+        System.arraycopy(offsets, 0, cursor, 0, numVertices);
+        for (int e = 0; e < edgeCount; e++) {
+            float w = weight == null ? 1f : weight[e];
+            int a = cursor[from[e]]++;
+            targets[a] = to[e];
+            weights[a] = w;
+            if (!directed) {
+                a = cursor[to[e]]++;
+                targets[a] = from[e];
+                weights[a] = w;
+            }
+        }
+        return new CsrGraph(numVertices, offsets, targets, weights, directed);
+    }
+
+    /**
+     * 由鄰接串列建立 CSR 圖 (例如 D0811 的 List&lt;List&lt;Integer&gt;&gt;)。
+     * 串列內容原樣當成出邊，因此對稱的無向鄰接串列會得到無向圖，權重全部為 1。
+     * @param directed 只影響 isDirected() 的回傳值，不會額外加入反向邊
+     */
+    public static CsrGraph fromAdjacencyLists(List<? extends List<Integer>> adjacency, boolean directed) {
+        int n = adjacency.size();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + adjacency.get(v).size();
+        }
+        int[] targets = new int[offsets[n]];
+        float[] weights = new float[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            int a = offsets[v];
+            for (int u : adjacency.get(v)) {
+                targets[a] = u;
+                weights[a] = 1f;
+                a++;
+            }
+        }
+        return new CsrGraph(n, offsets, targets, weights, directed);
+    }
+
+    /**
+     * 直接以已經排好的 CSR 陣列建立圖 (不複製)，供串流載入器等使用。
+     */
+    static CsrGraph wrap(int numVertices, int[] offsets, int[] targets, float[] weights, boolean directed) {
+        return new CsrGraph(numVertices, offsets, targets, weights, directed);
+    }
+
+    public int numVertices() { return numVertices; }
+
+    /**
+     * arc 的總數；無向圖為邊數的兩倍。
+     */
+    public int numArcs() { return targets.length; }
+
+    /**
+     * 邊數；無向圖每條邊只算一次。
+     */
+    public int numEdges() { return directed ? targets.length : targets.length / 2; }
+
+    public boolean isDirected() { return directed; }
+
+    public int degree(int v) { return offsets[v + 1] - offsets[v]; }
+
+    /**
+     * 頂點 v 的第一個 arc 索引，搭配 endOffset 走訪鄰居：
+     * for (int a = g.offset(v); a &lt; g.endOffset(v); a++) { g.target(a); g.weight(a); }
+     */
+    public int offset(int v) { return offsets[v]; }
+    public int endOffset(int v) { return offsets[v + 1]; }
+    public int target(int arc) { return targets[arc]; }
+    public float weight(int arc) { return weights[arc]; }
+
+    /**
+     * 將每條邊輸出成平行陣列 (無向圖每條邊只輸出一次：from &lt;= to 的方向)，
+     * 供 Kruskal 等以邊為單位的演算法使用。
+     * @param from 長度至少 numEdges()
+     * @param to 長度至少 numEdges()
+     * @param weight 長度至少 numEdges()
+     * @return 輸出的邊數
+     */
+    public int exportEdges(int[] from, int[] to, float[] weight) {
+        int count = 0;
+        for (int v = 0; v < numVertices; v++) {
+            int loops = 0;
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                int u = targets[a];
+                // 自環在無向圖中有兩個 arc，只輸出第一個
+                if (!directed && (u < v || (u == v && (loops++ & 1) == 1))) continue;
+                from[count] = v;
+                to[count] = u;
+                weight[count] = weights[a];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 建立反向圖 (每個 arc u->v 變成 v->u)；無向圖的反向圖就是自己。
+     */
+    public CsrGraph reverse() {
+        if (!directed) return this;
+        int[] from = new int[targets.length];
+        int[] to = new int[targets.length];
+        for (int v = 0; v < numVertices; v++) {
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                from[a] = targets[a];
+                to[a] = v;
+            }
+        }
+        return fromEdges(numVertices, from, to, weights, targets.length, true);
+    }
+}
@@ -0,0 +1,71 @@
+package GraphCore;
+
+/**
+ * 以基本型別陣列實作的並查集 (union-find)：union by rank 加上路徑壓縮。
+ * find 以迴圈實作，長鏈也不會造成 StackOverflowError。非執行緒安全；
+ * 平行階段只能呼叫不修改內容的 findReadOnly。
+ */
+public final class DisjointSet {
+
+    private final int[] parent;
+    private final byte[] rank; // rank 不會超過 log2(n) < 32，用 byte 即可
+    private int sets;
+
+    public DisjointSet(int size) {
+        parent = new int[size];
+        rank = new byte[size];
+        for (int i = 0; i < size; i++) parent[i] = i;
+        sets = size;
+    }
+
+    /**
+     * 找出 x 所在集合的代表，並把路徑上的節點直接接到代表底下。
+     */
+    public int find(int x) {
+        int root = x;
+        while (parent[root] != root) root = parent[root];
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    /**
+     * 不做路徑壓縮的 find，不寫入任何欄位，可在沒有 union 進行時由多條執行緒同時呼叫。
+     */
+    int findReadOnly(int x) {
+        while (parent[x] != x) x = parent[x];
+        return x;
+    }
+
+    /**
+     * 合併 x 與 y 所在的集合。
+     * @return 原本屬於不同集合則為 true
+     */
+    public boolean union(int x, int y) {
+        int rx = find(x);
+        int ry = find(y);
+        if (rx == ry) return false;
+        if (rank[rx] < rank[ry]) {
+            parent[rx] = ry;
+        } else if (rank[rx] > rank[ry]) {
+            parent[ry] = rx;
+        } else {
+            parent[ry] = rx;
+            rank[rx]++;
+        }
+        sets--;
+        return true;
+    }
+
+    public boolean connected(int x, int y) { return find(x) == find(y); }
+
+    /**
+     * 目前的集合數。
+     */
+    public int count() { return sets; }
+
+    public int size() { return parent.length; }
+}
@@ -0,0 +1,343 @@
+package GraphCore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 從磁碟串流讀取邊串列並建立 CsrGraph，適用於無法全部放進物件串列的大型圖。
+ *
+ * 檔案會被讀兩次：第一次只計算每個頂點的出度，第二次直接把邊填進 CSR 陣列。
+ * 讀取使用 FileChannel 與固定大小的 direct ByteBuffer，直接從位元組解析數字，
+ * 過程中不會為任何一條邊建立物件或 String。
+ *
+ * 文字格式：每行 "u v" 或 "u v w"，以空白或 tab 分隔，# 開頭的行為註解。
+ * 二進位格式 (little-endian)：
+ * int MAGIC, int VERSION, int flags (bit0 有向, bit1 有權重), int numVertices, long numEdges,
+ * 之後每條邊為 int u, int v，有權重時再接 float w。
+ *
+ * 權重會保留在 CsrGraph 中，可直接交給 MinimumSpanningForest.of() 計算最小生成森林
+ * (D0805.MSTSimulator 的「載入邊串列」按鈕)，或交給 BFS、Tarjan 等只看拓撲的演算法。
+ */
+public final class EdgeListLoader {
+
+    private static final int MAGIC = 0x4C474445; // "EDGL"
+    private static final int VERSION = 1;
+    private static final int FLAG_DIRECTED = 1;
+    private static final int FLAG_WEIGHTED = 2;
+    private static final int HEADER_BYTES = 24;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long MAX_FRACTION_SCALE = 1_000_000_000_000_000_000L; // 10^18
+
+    private EdgeListLoader() {
+    }
+
+    // 每讀到一條邊呼叫一次；同一個實例用於整個檔案，不會為每條邊配置物件
+    private interface EdgeSink {
+        void accept(int u, int v, float w);
+    }
+
+    /**
+     * 讀取文字邊串列。頂點數為出現過的最大 ID + 1。
+     * @param directed false 時每條邊會加入兩個方向
+     */
+    public static CsrGraph loadText(Path file, boolean directed) throws IOException {
+        DegreeCounter counter = new DegreeCounter(directed);
+        scanText(file, counter);
+        Filler filler = new Filler(counter.numVertices(), counter.degree, directed);
+        scanText(file, filler);
+        return filler.build();
+    }
+
+    /**
+     * 讀取 writeBinary 產生的二進位邊串列。
+     * 頂點數以檔頭為準，ID 超出 [0, numVertices) 的邊視為檔案損毀。
+     */
+    public static CsrGraph loadBinary(Path file) throws IOException {
+        int flags, numVertices;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("不是有效的二進位邊串列: " + file);
+            }
+            flags = header.getInt();
+            numVertices = header.getInt();
+        }
+        boolean directed = (flags & FLAG_DIRECTED) != 0;
+        if (numVertices < 0) throw new IOException("二進位邊串列損毀，頂點數為負: " + file);
+        DegreeCounter counter = new DegreeCounter(directed);
+        counter.ensureVertices(numVertices);
+        scanBinary(file, counter);
+        Filler filler = new Filler(numVertices, counter.degree, directed);
+        scanBinary(file, filler);
+        return filler.build();
+    }
+
+    /**
+     * 將圖寫成二進位邊串列 (無向圖每條邊只寫一次)。
+     */
+    public static void writeBinary(CsrGraph graph, Path file) throws IOException {
+        boolean weighted = false;
+        for (float w : graph.weights) {
+            if (w != 1f) {
+                weighted = true;
+                break;
+            }
+        }
+        long numEdges = graph.numEdges();
+        int recordBytes = weighted ? 12 : 8;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt((graph.directed ? FLAG_DIRECTED : 0) | (weighted ? FLAG_WEIGHTED : 0))
+                    .putInt(graph.numVertices)
+                    .putLong(numEdges);
+            for (int v = 0; v < graph.numVertices; v++) {
+                int loops = 0;
+                for (int a = graph.offsets[v]; a < graph.offsets[v + 1]; a++) {
+                    int u = graph.targets[a];
+                    // 無向圖的每條邊只寫 v < u 的方向；自環的兩個 arc 只寫第一個
+                    if (!graph.directed && (u < v || (u == v && (loops++ & 1) == 1))) continue;
+                    if (buffer.remaining() < recordBytes) {
+                        buffer.flip();
+                        writeFully(channel, buffer);
+                        buffer.clear();
+                    }
+                    buffer.putInt(v).putInt(u);
+                    if (weighted) buffer.putFloat(graph.weights[a]);
+                }
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+        }
+    }
+
+    private static void scanBinary(Path file, EdgeSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, buffer.limit(HEADER_BYTES));
+            buffer.flip();
+            buffer.position(8);
+            boolean weighted = (buffer.getInt() & FLAG_WEIGHTED) != 0;
+            int numVertices = buffer.getInt();
+            long remaining = buffer.getLong();
+            int recordBytes = weighted ? 12 : 8;
+
+            buffer.clear();
+            while (remaining > 0) {
+                if (channel.read(buffer) < 0 && buffer.position() < recordBytes) {
+                    throw new IOException("二進位邊串列提早結束: " + file);
+                }
+                buffer.flip();
+                while (remaining > 0 && buffer.remaining() >= recordBytes) {
+                    int u = buffer.getInt();
+                    int v = buffer.getInt();
+                    float w = weighted ? buffer.getFloat() : 1f;
+                    if (u < 0 || u >= numVertices || v < 0 || v >= numVertices) {
+                        throw new IOException("二進位邊串列損毀，頂點 ID 超出範圍 [0, " + numVertices + "): "
+                                + u + " " + v + " (" + file + ")");
+                    }
+                    sink.accept(u, v, w);
+                    remaining--;
+                }
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * 逐位元組解析文字邊串列。每行最多讀三個欄位，第三個欄位 (權重) 可以是小數。
+     * 一行被切在兩次讀取之間時，由於解析狀態保存在區域變數中，可以直接接續。
+     */
+    private static void scanText(Path file, EdgeSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            int field = 0;            // 目前這行已完成的欄位數
+            boolean inNumber = false;
+            boolean comment = false;
+            long intPart = 0;         // 目前數字的整數部分
+            long fraction = 0;        // 小數部分的數字
+            long fractionScale = 1;
+            boolean negative = false;
+            boolean afterDot = false;
+            int u = 0, v = 0;
+            float w = 1f;
+            long line = 1;
+
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                boolean eof = read < 0;
+                buffer.flip();
+                int limit = eof ? 1 : buffer.limit();
+                for (int i = 0; i < limit; i++) {
+                    byte b = eof ? (byte) '\n' : buffer.get(i);
+                    if (comment) {
+                        if (b == '\n') {
+                            comment = false;
+                            line++;
+                        }
+                        continue;
+                    }
+                    if ((b >= '0' && b <= '9')) {
+                        inNumber = true;
+                        if (afterDot) {
+                            // 超過 18 位的小數已經影響不到 float 權重，直接略過以免 long 溢位
+                            if (fractionScale < MAX_FRACTION_SCALE) {
+                                fraction = fraction * 10 + (b - '0');
+                                fractionScale *= 10;
+                            }
+                        } else {
+                            if (intPart > (Long.MAX_VALUE - 9) / 10) {
+                                throw new IOException("第 " + line + " 行的權重超出範圍");
+                            }
+                            intPart = intPart * 10 + (b - '0');
+                            // 頂點數 (最大 ID + 1) 必須放得進 int；超過就停止累加，避免轉型後變成錯誤或負的索引
+                            if (field < 2 && intPart >= Integer.MAX_VALUE) {
+                                throw new IOException("第 " + line + " 行的頂點 ID 超出範圍");
+                            }
+                        }
+                        continue;
+                    }
+                    if (b == '-' && !inNumber) {
+                        negative = true;
+                        inNumber = true;
+                        continue;
+                    }
+                    if (b == '.' && inNumber && !afterDot) {
+                        afterDot = true;
+                        continue;
+                    }
+                    if (b == '#' && !inNumber && field == 0) {
+                        comment = true;
+                        continue;
+                    }
+                    if (b != ' ' && b != '\t' && b != '\r' && b != '\n' && b != ',') {
+                        throw new IOException("第 " + line + " 行有無法解析的字元: " + (char) b);
+                    }
+
+                    // 分隔字元：結束目前的數字
+                    if (inNumber) {
+                        double value = intPart + (double) fraction / fractionScale;
+                        if (negative) value = -value;
+                        if (field == 0) u = (int) intPart;
+                        else if (field == 1) v = (int) intPart;
+                        else if (field == 2) w = (float) value;
+                        if (field < 2 && (negative || afterDot)) {
+                            throw new IOException("第 " + line + " 行的頂點 ID 必須是非負整數");
+                        }
+                        field++;
+                        inNumber = negative = afterDot = false;
+                        intPart = fraction = 0;
+                        fractionScale = 1;
+                    }
+                    if (b == '\n') {
+                        if (field >= 2) {
+                            sink.accept(u, v, field >= 3 ? w : 1f);
+                        } else if (field == 1) {
+                            throw new IOException("第 " + line + " 行只有一個欄位");
+                        }
+                        field = 0;
+                        w = 1f;
+                        line++;
+                    }
+                }
+                if (eof) return;
+            }
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("檔案提早結束");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // 第一次掃描：計算出度，頂點數隨讀到的最大 ID 成長
+    private static final class DegreeCounter implements EdgeSink {
+        private final boolean directed;
+        int[] degree = new int[1024];
+        private int maxId = -1;
+        private long arcs;
+
+        DegreeCounter(boolean directed) {
+            this.directed = directed;
+        }
+
+        void ensureVertices(int n) {
+            if (n > degree.length) degree = Arrays.copyOf(degree, n);
+            maxId = Math.max(maxId, n - 1);
+        }
+
+        int numVertices() { return maxId + 1; }
+
+        @Override
+        public void accept(int u, int v, float w) {
+            int max = Math.max(u, v);
+            if (max >= degree.length) {
+                degree = Arrays.copyOf(degree, Math.max(max + 1, degree.length * 2));
+            }
+            if (max > maxId) maxId = max;
+            degree[u]++;
+            arcs++;
+            if (!directed) {
+                degree[v]++;
+                arcs++;
+            }
+            if (arcs > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("arc 數超過 CSR 陣列上限");
+            }
+        }
+    }
+
+    // 第二次掃描：依照第一次的出度直接寫入 CSR 陣列
+    private static final class Filler implements EdgeSink {
+        private final int numVertices;
+        private final boolean directed;
+        private final int[] offsets;
+        private final int[] cursor;
+        private final int[] targets;
+        private final float[] weights;
+
+        Filler(int numVertices, int[] degree, boolean directed) {
+            this.numVertices = numVertices;
+            this.directed = directed;
+            this.offsets = new int[numVertices + 1];
+            for (int v = 0; v < numVertices; v++) {
+                offsets[v + 1] = offsets[v] + degree[v];
+            }
+            this.cursor = Arrays.copyOf(offsets, numVertices);
+            this.targets = new int[offsets[numVertices]];
+            this.weights = new float[offsets[numVertices]];
+        }
+
+        @Override
+        public void accept(int u, int v, float w) {
+            int a = cursor[u]++;
+            targets[a] = v;
+            weights[a] = w;
+            if (!directed) {
+                a = cursor[v]++;
+                targets[a] = u;
+                weights[a] = w;
+            }
+        }
+
+        CsrGraph build() {
+            return CsrGraph.wrap(numVertices, offsets, targets, weights, directed);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package GraphCore;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 各模組共用的隨機圖產生器。
+ *
+ * - erdosRenyi：G(n, m)，均勻抽取 m 條不重複的邊。
+ * - connectedRandom：先建立隨機生成樹保證連通，再補上均勻的隨機邊 (模擬器與效能測試使用)。
+ * - barabasiAlbert：優先連結 (preferential attachment)，度數呈冪律分布。
+ * - randomGeometric：單位正方形內的隨機點，距離不超過 radius 的點相連。
+ *
+ * 重複邊以打包成 long 的鍵放進 LongHashSet 檢查，不建立 String 或 Integer。
+ * 相同的 seed 一定產生相同的圖；parallel 模式下工作切成固定數量的區塊，
+ * 每個區塊有自己的亂數序列，因此結果與執行緒數無關，也與循序模式相同。
+ */
+public final class GraphGenerator {
+
+    private static final int CHUNKS = 64; // 平行模式的固定區塊數，決定亂數序列的切分方式
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * 產生的邊串列：邊 e 為 from[e] -> to[e]，e < count。
+     * 只有 randomGeometric 會填入座標 x / y。
+     */
+    public static final class Edges {
+        public final int numVertices;
+        public final boolean directed;
+        public final int[] from;
+        public final int[] to;
+        public final int count;
+        public final double[] x;
+        public final double[] y;
+
+        Edges(int numVertices, boolean directed, int[] from, int[] to, int count, double[] x, double[] y) {
+            this.numVertices = numVertices;
+            this.directed = directed;
+            this.from = from;
+            this.to = to;
+            this.count = count;
+            this.x = x;
+            this.y = y;
+        }
+
+        public CsrGraph toCsrGraph() {
+            return CsrGraph.fromEdges(numVertices, from, to, null, count, directed);
+        }
+    }
+
+    private final long seed;
+    private final ForkJoinPool pool; // null 表示循序執行
+
+    public GraphGenerator(long seed) {
+        this(seed, null);
+    }
+
+    /**
+     * @param pool 平行模式使用的執行緒池，null 表示循序
+     */
+    public GraphGenerator(long seed, ForkJoinPool pool) {
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * G(n, m)：m 條兩兩不同、沒有自環的邊。
+     */
+    public Edges erdosRenyi(int n, int m, boolean directed) {
+        checkEdgeCount(n, m, directed);
+        int[] from = new int[m];
+        int[] to = new int[m];
+        LongHashSet seen = new LongHashSet(m);
+        int count = fillUniform(n, m, directed, from, to, 0, seen, 0);
+        return new Edges(n, directed, from, to, count, null, null);
+    }
+
+    /**
+     * 連通的隨機圖：從頂點 0 開始，以隨機順序把其餘頂點接到某個已連通的頂點
+     * (有向圖的方向為由已連通者指向新頂點，因此從 0 出發可到達所有頂點)，再補上均勻的隨機邊直到共有 m 條。
+     * @param m 至少 n - 1
+     */
+    public Edges connectedRandom(int n, int m, boolean directed) {
+        if (m < n - 1) throw new IllegalArgumentException("連通圖至少需要 " + (n - 1) + " 條邊");
+        checkEdgeCount(n, m, directed);
+        SplittableRandom rand = new SplittableRandom(seed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        for (int i = n - 1; i > 1; i--) {
+            int j = 1 + rand.nextInt(i);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+
+        int[] from = new int[m];
+        int[] to = new int[m];
+        LongHashSet seen = new LongHashSet(m);
+        for (int i = 1; i < n; i++) {
+            from[i - 1] = order[rand.nextInt(i)];
+            to[i - 1] = order[i];
+            seen.add(key(from[i - 1], to[i - 1], directed));
+        }
+        int count = fillUniform(n, m, directed, from, to, Math.max(0, n - 1), seen, 1);
+        return new Edges(n, directed, from, to, count, null, null);
+    }
+
+    /**
+     * Barabási–Albert：從 k + 1 個頂點的完全圖開始，之後每個新頂點連到 k 個不同的既有頂點，
+     * 被選中的機率與度數成正比 (從所有邊端點的陣列中均勻抽取)。無向圖。
+     */
+    public Edges barabasiAlbert(int n, int k) {
+        if (k < 1 || n < k + 1) throw new IllegalArgumentException("需要 k >= 1 且 n >= k + 1");
+        SplittableRandom rand = new SplittableRandom(seed);
+        int m = k * (k + 1) / 2 + (n - k - 1) * k;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] endpoints = new int[2 * m]; // 每條邊的兩端各出現一次，等同依度數加權
+        int count = 0, ends = 0;
+        for (int u = 0; u <= k; u++) {
+            for (int v = u + 1; v <= k; v++) {
+                from[count] = u;
+                to[count++] = v;
+                endpoints[ends++] = u;
+                endpoints[ends++] = v;
+            }
+        }
+        int[] chosen = new int[k];
+        for (int v = k + 1; v < n; v++) {
+            int picked = 0;
+            while (picked < k) {
+                int target = endpoints[rand.nextInt(ends)];
+                boolean duplicate = false;
+                for (int i = 0; i < picked; i++) {
+                    if (chosen[i] == target) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+                if (!duplicate) chosen[picked++] = target;
+            }
+            for (int i = 0; i < k; i++) {
+                from[count] = v;
+                to[count++] = chosen[i];
+                endpoints[ends++] = v;
+                endpoints[ends++] = chosen[i];
+            }
+        }
+        return new Edges(n, false, from, to, count, null, null);
+    }
+
+    /**
+     * 隨機幾何圖：n 個點均勻分布在單位正方形，距離 <= radius 的點對相連 (無向)。
+     * 以邊長至少 radius 的格子分桶，每個點只需檢查相鄰 9 格；平行模式下各格子平行處理。
+     */
+    public Edges randomGeometric(int n, double radius) {
+        if (radius <= 0) throw new IllegalArgumentException("radius 必須大於 0");
+        SplittableRandom rand = new SplittableRandom(seed);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = rand.nextDouble();
+            y[i] = rand.nextDouble();
+        }
+
+        // 格子邊長不得小於 radius，否則相連的點可能不在相鄰格子
+        int side = (int) Math.max(1, Math.min(Math.floor(1 / radius), Math.sqrt(n) * 2 + 1));
+        double cellSize = 1.0 / side;
+        int cells = side * side;
+        int[] cellStart = new int[cells + 1];
+        int[] cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            int cx = Math.min(side - 1, (int) (x[i] / cellSize));
+            int cy = Math.min(side - 1, (int) (y[i] / cellSize));
+            cellOf[i] = cy * side + cx;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells; c++) cellStart[c + 1] += cellStart[c];
+        int[] members = new int[n];
+        int[] cursor = Arrays.copyOf(cellStart, cells);
+        for (int i = 0; i < n; i++) members[cursor[cellOf[i]]++] = i;
+
+        // 每一列格子各自收集邊 (只取 u < v)，最後依列的順序串接，結果與執行緒排程無關
+        double r2 = radius * radius;
+        int[][] rowFrom = new int[side][];
+        int[][] rowTo = new int[side][];
+        int[] rowCount = new int[side];
+        Parallel.RangeBody body = (lo, hi) -> {
+            for (int cy = lo; cy < hi; cy++) {
+                int[] f = new int[16];
+                int[] t = new int[16];
+                int c = 0;
+                for (int cx = 0; cx < side; cx++) {
+                    for (int a = cellStart[cy * side + cx]; a < cellStart[cy * side + cx + 1]; a++) {
+                        int u = members[a];
+                        for (int ny = Math.max(0, cy - 1); ny <= Math.min(side - 1, cy + 1); ny++) {
+                            for (int nx = Math.max(0, cx - 1); nx <= Math.min(side - 1, cx + 1); nx++) {
+                                int cell = ny * side + nx;
+                                for (int b = cellStart[cell]; b < cellStart[cell + 1]; b++) {
+                                    int v = members[b];
+                                    if (v <= u) continue;
+                                    double dx = x[u] - x[v], dy = y[u] - y[v];
+                                    if (dx * dx + dy * dy > r2) continue;
+                                    if (c == f.length) {
+                                        f = Arrays.copyOf(f, c * 2);
+                                        t = Arrays.copyOf(t, c * 2);
+                                    }
+                                    f[c] = u;
+                                    t[c++] = v;
+                                }
+                            }
+                        }
+                    }
+                }
+                rowFrom[cy] = f;
+                rowTo[cy] = t;
+                rowCount[cy] = c;
+            }
+        };
+        if (pool == null) body.run(0, side);
+        else Parallel.forRange(pool, 0, side, 1, body);
+
+        int total = 0;
+        for (int c : rowCount) total += c;
+        int[] from = new int[total];
+        int[] to = new int[total];
+        int count = 0;
+        for (int cy = 0; cy < side; cy++) {
+            System.arraycopy(rowFrom[cy], 0, from, count, rowCount[cy]);
+            System.arraycopy(rowTo[cy], 0, to, count, rowCount[cy]);
+            count += rowCount[cy];
+        }
+        return new Edges(n, false, from, to, count, x, y);
+    }
+
+    /**
+     * 均勻抽取隨機邊填到 from/to[start..m)，略過自環與 seen 中已有的邊。
+     * 候選邊分成 CHUNKS 個區塊，各區塊以自己的亂數序列產生 (平行模式下同時產生)，
+     * 再依區塊順序去除重複；不足的部分以循序的亂數序列補齊。
+     * @param stream 區分不同呼叫者的亂數序列
+     */
+    private int fillUniform(int n, int m, boolean directed, int[] from, int[] to, int start,
+                            LongHashSet seen, int stream) {
+        int needed = m - start;
+        if (needed <= 0) return start;
+        long[] candidates = new long[needed];
+        Parallel.RangeBody body = (lo, hi) -> {
+            for (int chunk = lo; chunk < hi; chunk++) {
+                SplittableRandom rand = new SplittableRandom(mixSeed(stream, chunk));
+                int begin = (int) ((long) needed * chunk / CHUNKS);
+                int end = (int) ((long) needed * (chunk + 1) / CHUNKS);
+                for (int i = begin; i < end; i++) {
+                    candidates[i] = ((long) rand.nextInt(n) << 32) | rand.nextInt(n);
+                }
+            }
+        };
+        if (pool == null) body.run(0, CHUNKS);
+        else Parallel.forRange(pool, 0, CHUNKS, 1, body);
+
+        int count = start;
+        for (long c : candidates) {
+            count = tryAdd((int) (c >>> 32), (int) c, directed, from, to, count, seen);
+        }
+        SplittableRandom rand = new SplittableRandom(mixSeed(stream, CHUNKS));
+        while (count < m) {
+            count = tryAdd(rand.nextInt(n), rand.nextInt(n), directed, from, to, count, seen);
+        }
+        return count;
+    }
+
+    private static int tryAdd(int u, int v, boolean directed, int[] from, int[] to, int count, LongHashSet seen) {
+        if (u == v || count == from.length || !seen.add(key(u, v, directed))) return count;
+        from[count] = u;
+        to[count] = v;
+        return count + 1;
+    }
+
+    // 無向邊以 (min, max) 打包，兩個方向得到同一個鍵
+    private static long key(int u, int v, boolean directed) {
+        if (!directed && u > v) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        return ((long) u << 32) | v;
+    }
+
+    private long mixSeed(int stream, int chunk) {
+        return seed + GOLDEN * (stream * (CHUNKS + 1L) + chunk + 1);
+    }
+
+    private static void checkEdgeCount(int n, int m, boolean directed) {
+        long max = directed ? (long) n * (n - 1) : (long) n * (n - 1) / 2;
+        if (m < 0 || m > max) throw new IllegalArgumentException("邊數必須在 0 至 " + max + " 之間");
+    }
+}
@@ -0,0 +1,221 @@
+package GraphCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 不含動畫的 DFS / BFS，走訪 CsrGraph 並可選擇把每次訪問記錄到 StepLog。
+ * 鄰居依 CSR 中的 arc 順序處理，結果與逐步動畫版本相同。
+ *
+ * 訪問集合一律是 long[] 位元圖 (每個頂點 1 bit)，比 boolean[] 小 8 倍，
+ * 大圖時較容易留在快取中。
+ */
+public final class GraphTraversal {
+
+    // direction-optimizing BFS 的切換門檻 (Beamer 等人建議的預設值)
+    private static final int ALPHA = 14; // 前沿的出邊數超過未訪問頂點邊數的 1/ALPHA 時改為由下而上
+    private static final int BETA = 24;  // 前沿頂點數少於 V/BETA 且開始縮小時改回由上而下
+
+    private GraphTraversal() {
+    }
+
+    /**
+     * 從 start 出發的深度優先走訪 (以陣列模擬堆疊，不會遞迴)。
+     * 每個頂點保留下一個要檢查的 arc 位置，整體為 O(V + E)。
+     * @param log 記錄 VISIT 步驟，null 表示不記錄
+     * @return 依訪問順序排列的頂點
+     */
+    public static int[] dfs(CsrGraph graph, int start, StepLog log) {
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        long[] visited = new long[words(graph.numVertices)];
+        int[] order = new int[graph.numVertices];
+        int[] stack = new int[graph.numVertices];
+        int[] cursor = new int[graph.numVertices];
+        int count = 0, top = 0;
+
+        set(visited, start);
+        order[count++] = start;
+        if (log != null) log.add(StepLog.VISIT, start, -1);
+        stack[top++] = start;
+        cursor[start] = offsets[start];
+        while (top > 0) {
+            int v = stack[top - 1];
+            int a = cursor[v];
+            while (a < offsets[v + 1] && get(visited, targets[a])) a++;
+            if (a == offsets[v + 1]) {
+                top--;
+                continue;
+            }
+            cursor[v] = a + 1;
+            int u = targets[a];
+            set(visited, u);
+            order[count++] = u;
+            if (log != null) log.add(StepLog.VISIT, u, v);
+            stack[top++] = u;
+            cursor[u] = offsets[u];
+        }
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * 從 start 出發的廣度優先走訪，佇列為單一 int[] (每個頂點最多入列一次)。
+     * @param log 記錄 VISIT 步驟，null 表示不記錄
+     * @return 依訪問順序排列的頂點
+     */
+    public static int[] bfs(CsrGraph graph, int start, StepLog log) {
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        long[] visited = new long[words(graph.numVertices)];
+        int[] queue = new int[graph.numVertices];
+        int head = 0, tail = 0;
+
+        set(visited, start);
+        queue[tail++] = start;
+        if (log != null) log.add(StepLog.VISIT, start, -1);
+        while (head < tail) {
+            int v = queue[head++];
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                int u = targets[a];
+                if (get(visited, u)) continue;
+                set(visited, u);
+                queue[tail++] = u;
+                if (log != null) log.add(StepLog.VISIT, u, v);
+            }
+        }
+        return Arrays.copyOf(queue, tail);
+    }
+
+    public static int[] bfsDistances(CsrGraph graph, int source) {
+        return bfsDistances(graph, graph.reverse(), source, null);
+    }
+
+    /**
+     * Direction-optimizing BFS，回傳每個頂點到 source 的跳數 (不可達為 -1)。
+     *
+     * 前沿小時由上而下 (走訪前沿的出邊)；前沿變大、大部分的邊都指向已訪問頂點時，
+     * 改為由下而上：每個未訪問頂點檢查自己的入邊，只要有一個鄰居在前沿中就停止，
+     * 可省下大量無效的邊檢查。由下而上時前沿以位元圖表示，各工作依 64 個頂點一組的
+     * word 切分，每個 word 只由一條執行緒寫入，不需要同步。
+     * @param reverse graph 的反向圖 (無向圖傳入 graph 本身)，由下而上時使用
+     * @param pool 由下而上步驟的執行緒池，null 表示循序
+     */
+    public static int[] bfsDistances(CsrGraph graph, CsrGraph reverse, int source, ForkJoinPool pool) {
+        final int n = graph.numVertices;
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int words = words(n);
+        int[] dist = new int[n];
+        Arrays.fill(dist, -1);
+        long[] visited = new long[words];
+        long[] frontierBits = new long[words];
+        long[] nextBits = new long[words];
+        int[] frontier = new int[n];
+        int[] next = new int[n];
+
+        dist[source] = 0;
+        set(visited, source);
+        frontier[0] = source;
+        int frontierSize = 1;
+        long unexploredArcs = (long) targets.length - (offsets[source + 1] - offsets[source]);
+        boolean bottomUp = false;
+        int level = 0;
+
+        while (frontierSize > 0) {
+            if (!bottomUp) {
+                long frontierArcs = 0;
+                for (int i = 0; i < frontierSize; i++) {
+                    int v = frontier[i];
+                    frontierArcs += offsets[v + 1] - offsets[v];
+                }
+                if (frontierArcs > unexploredArcs / ALPHA) {
+                    bottomUp = true;
+                    Arrays.fill(frontierBits, 0L);
+                    for (int i = 0; i < frontierSize; i++) set(frontierBits, frontier[i]);
+                }
+            }
+
+            int nextSize;
+            if (bottomUp) {
+                bottomUpStep(reverse, level + 1, dist, visited, frontierBits, nextBits, pool);
+                // 計算新前沿的大小與它們的邊數
+                nextSize = 0;
+                for (int w = 0; w < words; w++) {
+                    long bits = nextBits[w];
+                    while (bits != 0) {
+                        int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        next[nextSize++] = v;
+                        unexploredArcs -= offsets[v + 1] - offsets[v];
+                    }
+                }
+                long[] t = frontierBits;
+                frontierBits = nextBits;
+                nextBits = t;
+                if (nextSize < n / BETA && nextSize < frontierSize) bottomUp = false;
+            } else {
+                nextSize = 0;
+                for (int i = 0; i < frontierSize; i++) {
+                    int v = frontier[i];
+                    for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                        int u = targets[a];
+                        if (get(visited, u)) continue;
+                        set(visited, u);
+                        dist[u] = level + 1;
+                        next[nextSize++] = u;
+                        unexploredArcs -= offsets[u + 1] - offsets[u];
+                    }
+                }
+            }
+            int[] t = frontier;
+            frontier = next;
+            next = t;
+            frontierSize = nextSize;
+            level++;
+        }
+        return dist;
+    }
+
+    // 由下而上的一層：未訪問的頂點 v 只要有一個入鄰居在前沿中就加入下一層
+    private static void bottomUpStep(CsrGraph reverse, int depth, int[] dist, long[] visited,
+                                     long[] frontierBits, long[] nextBits, ForkJoinPool pool) {
+        final int n = reverse.numVertices;
+        final int[] offsets = reverse.offsets;
+        final int[] sources = reverse.targets;
+        Parallel.RangeBody body = (lo, hi) -> {
+            for (int w = lo; w < hi; w++) {
+                long found = 0;
+                long unvisited = ~visited[w];
+                if (w == visited.length - 1 && (n & 63) != 0) unvisited &= (1L << (n & 63)) - 1;
+                while (unvisited != 0) {
+                    int bit = Long.numberOfTrailingZeros(unvisited);
+                    unvisited &= unvisited - 1;
+                    int v = (w << 6) + bit;
+                    for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                        if (get(frontierBits, sources[a])) {
+                            found |= 1L << bit;
+                            dist[v] = depth;
+                            break;
+                        }
+                    }
+                }
+                nextBits[w] = found;
+                visited[w] |= found;
+            }
+        };
+        if (pool == null) body.run(0, visited.length);
+        else Parallel.forRange(pool, 0, visited.length, 64, body);
+    }
+
+    static int words(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    static boolean get(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+}
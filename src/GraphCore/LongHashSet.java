@@ -0,0 +1,122 @@
+package GraphCore;
+
+import java.util.Arrays;
+
+/**
+ * 以開放定址 (線性探測) 實作的 long 集合，不會為每個元素建立物件。
+ * 用於以打包後的 long 鍵 (兩個節點 ID) 在 O(1) 時間內檢查邊是否重複。
+ * 只接受非負的鍵，-1 保留作為空槽標記。非執行緒安全。
+ */
+public final class LongHashSet {
+    private static final long EMPTY = -1L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] table;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.min(1 << 30, (long) (expectedSize / LOAD_FACTOR) + 1));
+        allocate(capacity);
+    }
+
+    /**
+     * 加入一個鍵。
+     * @return 若鍵原本不存在則為 true
+     */
+    public boolean add(long key) {
+        int slot = mix(key) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) return false;
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        if (++size > resizeThreshold) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        int slot = mix(key) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 移除一個鍵，並把後面同一探測序列的鍵往前搬 (backward shift)，不需要墓碑標記。
+     * @return 若鍵原本存在則為 true
+     */
+    public boolean remove(long key) {
+        int slot = mix(key) & mask;
+        while (table[slot] != key) {
+            if (table[slot] == EMPTY) return false;
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table[next] != EMPTY) {
+            int home = mix(table[next]) & mask;
+            // 只有在 home 不位於 (hole, next] 之間時，才能把 next 的鍵搬到 hole
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size() { return size; }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = table;
+        allocate(newCapacity);
+        for (long key : old) {
+            if (key == EMPTY) continue;
+            int slot = mix(key) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+        }
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = 16;
+        while (capacity < n) capacity <<= 1;
+        return capacity;
+    }
+
+    // MurmurHash3 的 fmix64，讓相鄰的 ID 分散到不同的槽
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
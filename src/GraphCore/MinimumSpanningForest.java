@@ -0,0 +1,311 @@
+package GraphCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 不含動畫的最小生成森林 (MSF) 計算，輸入為基本型別的邊陣列 (from[], to[], weight[])。
+ * 圖不連通時得到每個連通塊各自的生成樹。
+ *
+ * - filterKruskal：以樞紐權重把邊分成輕、重兩半，先處理輕的一半，再把兩端已經連通的重邊
+ *   整批過濾掉；大部分的重邊不需要排序。排序與過濾都以 ForkJoinPool 平行執行。
+ * - boruvka：每一輪每個連通塊平行選出最輕的外連邊 (以 CAS 取最小值)，合併後把兩端屬於同一塊的
+ *   邊剔除，最多 log2(V) 輪。
+ * - parallelKruskal：平行排序後分批以 ConcurrentDisjointSet 平行過濾，再依序合併。
+ *
+ * 權重相同時以邊的索引決定先後，各方法因此得到同一棵樹。
+ * 回傳的是被選中的邊在輸入陣列中的索引。
+ */
+public final class MinimumSpanningForest {
+
+    private static final int KRUSKAL_BASE = 1 << 14; // 邊數不超過此值時直接排序
+    private static final int SAMPLE_SIZE = 64;       // 選樞紐時抽樣的邊數
+
+    /**
+     * 計算結果：edges[0..edgeCount) 為被選中的邊索引。
+     */
+    public static final class Result {
+        public final int[] edges;
+        public final int edgeCount;
+        public final double totalWeight;
+        public final int components;
+
+        Result(int[] edges, int edgeCount, double totalWeight, int components) {
+            this.edges = edges;
+            this.edgeCount = edgeCount;
+            this.totalWeight = totalWeight;
+            this.components = components;
+        }
+    }
+
+    private final int numVertices;
+    private final int[] from;
+    private final int[] to;
+    private final float[] weight;
+    private final int edgeCount;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param numVertices 頂點數，頂點 ID 為 0..numVertices-1
+     * @param weight 每條邊的權重，null 表示全部為 1
+     * @param edgeCount 使用 from/to/weight 的前幾個元素
+     */
+    public MinimumSpanningForest(int numVertices, int[] from, int[] to, float[] weight, int edgeCount) {
+        this(numVertices, from, to, weight, edgeCount, ForkJoinPool.commonPool());
+    }
+
+    public MinimumSpanningForest(int numVertices, int[] from, int[] to, float[] weight, int edgeCount,
+                                 ForkJoinPool pool) {
+        this.numVertices = numVertices;
+        this.from = from;
+        this.to = to;
+        this.weight = weight;
+        this.edgeCount = edgeCount;
+        this.pool = pool;
+    }
+
+    /**
+     * 以無向 CsrGraph 的每條邊建立 (有向圖的 arc 也視為無向邊)。
+     */
+    public static MinimumSpanningForest of(CsrGraph graph) {
+        return of(graph, ForkJoinPool.commonPool());
+    }
+
+    public static MinimumSpanningForest of(CsrGraph graph, ForkJoinPool pool) {
+        int m = graph.numEdges();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        float[] weight = new float[m];
+        int count = graph.exportEdges(from, to, weight);
+        return new MinimumSpanningForest(graph.numVertices(), from, to, weight, count, pool);
+    }
+
+    // ------------------------------------------------------------------ filter-Kruskal
+
+    public Result filterKruskal() {
+        int[] candidates = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) candidates[e] = e;
+        DisjointSet sets = new DisjointSet(numVertices);
+        Collector out = new Collector(Math.max(0, numVertices - 1));
+        filterKruskal(candidates, edgeCount, sets, out, 1L);
+        return out.toResult(sets.count());
+    }
+
+    private void filterKruskal(int[] edges, int count, DisjointSet sets, Collector out, long seed) {
+        if (count == 0 || out.count == out.edges.length) return;
+        if (count <= KRUSKAL_BASE) {
+            kruskal(edges, count, sets, out);
+            return;
+        }
+
+        long pivot = choosePivot(edges, count, seed);
+        // 分割：key <= pivot 的邊放前面 (輕邊)，其餘放在 heavy
+        int[] heavy = new int[count];
+        int lightCount = 0, heavyCount = 0;
+        for (int i = 0; i < count; i++) {
+            int e = edges[i];
+            if (key(e) <= pivot) edges[lightCount++] = e;
+            else heavy[heavyCount++] = e;
+        }
+        if (heavyCount == 0) {
+            // 樞紐剛好是最大值，無法再分割
+            kruskal(edges, count, sets, out);
+            return;
+        }
+        filterKruskal(edges, lightCount, sets, out, seed * 31 + 1);
+        heavyCount = filter(heavy, heavyCount, sets);
+        filterKruskal(heavy, heavyCount, sets, out, seed * 31 + 2);
+    }
+
+    // 抽樣取中位數當樞紐，權重分布不平均時仍能大致對半分割
+    private long choosePivot(int[] edges, int count, long seed) {
+        long[] sample = new long[SAMPLE_SIZE];
+        long state = seed * 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            state ^= state << 13;
+            state ^= state >>> 7;
+            state ^= state << 17;
+            sample[i] = key(edges[(int) ((state >>> 1) % count)]);
+        }
+        Arrays.sort(sample);
+        return sample[SAMPLE_SIZE / 2];
+    }
+
+    /**
+     * 平行移除兩端已經連通的邊，保留的邊依原順序壓縮到陣列前段。
+     * 過濾期間不會合併集合，因此可以安全地平行呼叫 findReadOnly。
+     */
+    private int filter(int[] edges, int count, DisjointSet sets) {
+        boolean[] keep = new boolean[count];
+        Parallel.forRange(pool, 0, count, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                int e = edges[i];
+                keep[i] = sets.findReadOnly(from[e]) != sets.findReadOnly(to[e]);
+            }
+        });
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) edges[kept++] = edges[i];
+        }
+        return kept;
+    }
+
+    // 以 (權重, 索引) 打包成 long 後平行排序，再依序合併
+    private void kruskal(int[] edges, int count, DisjointSet sets, Collector out) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) keys[i] = key(edges[i]);
+        Parallel.sort(pool, keys);
+        for (int i = 0; i < count && out.count < out.edges.length; i++) {
+            int e = (int) keys[i];
+            if (sets.union(from[e], to[e])) out.add(e, weightOf(e));
+        }
+    }
+
+    // ------------------------------------------------------------------ 平行 Kruskal
+
+    /**
+     * 全部的邊平行排序後分批處理：每批先由多條執行緒以 ConcurrentDisjointSet 平行剔除
+     * 兩端已連通的邊，剩下的少數邊再依權重順序合併。批次大小逐步加倍，
+     * 後期大部分的邊都在平行階段被剔除。
+     */
+    public Result parallelKruskal() {
+        long[] keys = new long[edgeCount];
+        Parallel.forRange(pool, 0, edgeCount, (lo, hi) -> {
+            for (int e = lo; e < hi; e++) keys[e] = key(e);
+        });
+        Parallel.sort(pool, keys);
+
+        ConcurrentDisjointSet sets = new ConcurrentDisjointSet(numVertices);
+        Collector out = new Collector(Math.max(0, numVertices - 1));
+        boolean[] keep = new boolean[edgeCount];
+        long batch = Math.max(numVertices, 1024);
+        for (long start = 0; start < edgeCount && out.count < out.edges.length; start += batch, batch <<= 1) {
+            final int lo = (int) start;
+            final int hi = (int) Math.min(edgeCount, start + batch);
+            Parallel.forRange(pool, lo, hi, (a, b) -> {
+                for (int i = a; i < b; i++) {
+                    int e = (int) keys[i];
+                    keep[i] = !sets.connected(from[e], to[e]);
+                }
+            });
+            for (int i = lo; i < hi && out.count < out.edges.length; i++) {
+                if (!keep[i]) continue;
+                int e = (int) keys[i];
+                if (sets.union(from[e], to[e])) out.add(e, weightOf(e));
+            }
+        }
+        return out.toResult(numVertices - out.count);
+    }
+
+    // ------------------------------------------------------------------ Borůvka
+
+    public Result boruvka() {
+        final int n = numVertices;
+        DisjointSet sets = new DisjointSet(n);
+        Collector out = new Collector(Math.max(0, n - 1));
+        int[] component = new int[n];
+        for (int v = 0; v < n; v++) component[v] = v;
+
+        // 只保留兩端位於不同連通塊的邊，每輪後再壓縮
+        int[] alive = new int[edgeCount];
+        int aliveCount = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] != to[e]) alive[aliveCount++] = e;
+        }
+
+        AtomicLongArray best = new AtomicLongArray(n);
+        while (aliveCount > 0) {
+            for (int v = 0; v < n; v++) best.set(v, Long.MAX_VALUE);
+            final int[] edges = alive;
+            final int count = aliveCount;
+
+            // 每個連通塊平行選出最輕的外連邊
+            Parallel.forRange(pool, 0, count, (lo, hi) -> {
+                for (int i = lo; i < hi; i++) {
+                    int e = edges[i];
+                    long k = key(e);
+                    lowerTo(best, component[from[e]], k);
+                    lowerTo(best, component[to[e]], k);
+                }
+            });
+
+            // 合併：同一條邊可能被兩端同時選中，union 會過濾第二次
+            boolean merged = false;
+            for (int c = 0; c < n; c++) {
+                long k = best.get(c);
+                if (k == Long.MAX_VALUE) continue;
+                int e = (int) k;
+                if (sets.union(from[e], to[e])) {
+                    out.add(e, weightOf(e));
+                    merged = true;
+                }
+            }
+            if (!merged) break;
+
+            // 更新每個頂點所屬的連通塊代表；此階段不會修改 sets
+            Parallel.forRange(pool, 0, n, (lo, hi) -> {
+                for (int v = lo; v < hi; v++) component[v] = sets.findReadOnly(v);
+            });
+            aliveCount = removeInternalEdges(edges, count, component);
+        }
+        return out.toResult(sets.count());
+    }
+
+    private int removeInternalEdges(int[] edges, int count, int[] component) {
+        boolean[] keep = new boolean[count];
+        Parallel.forRange(pool, 0, count, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                int e = edges[i];
+                keep[i] = component[from[e]] != component[to[e]];
+            }
+        });
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) edges[kept++] = edges[i];
+        }
+        return kept;
+    }
+
+    private static void lowerTo(AtomicLongArray best, int slot, long key) {
+        long current = best.get(slot);
+        while (key < current) {
+            if (best.compareAndSet(slot, current, key)) return;
+            current = best.get(slot);
+        }
+    }
+
+    // ------------------------------------------------------------------ 共用
+
+    private float weightOf(int e) {
+        return weight == null ? 1f : weight[e];
+    }
+
+    /**
+     * 排序鍵：高 32 位元為可直接比較大小的權重位元 (負數權重也正確)，低 32 位元為邊索引。
+     */
+    private long key(int e) {
+        int bits = Float.floatToIntBits(weightOf(e));
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | e;
+    }
+
+    private static final class Collector {
+        final int[] edges;
+        int count;
+        double total;
+
+        Collector(int capacity) {
+            edges = new int[capacity];
+        }
+
+        void add(int e, float w) {
+            edges[count++] = e;
+            total += w;
+        }
+
+        Result toResult(int components) {
+            return new Result(edges, count, total, components);
+        }
+    }
+}
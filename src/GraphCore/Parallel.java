@@ -0,0 +1,63 @@
+package GraphCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * GraphCore 內部共用的平行迴圈工具：把 [from, to) 遞迴切成小區段交給 ForkJoinPool。
+ */
+final class Parallel {
+
+    static final int DEFAULT_GRAIN = 1 << 12; // 每個區段至少處理的元素數，太小時排程成本會超過計算本身
+
+    private Parallel() {
+    }
+
+    interface RangeBody {
+        void run(int from, int to);
+    }
+
+    static void forRange(ForkJoinPool pool, int from, int to, RangeBody body) {
+        forRange(pool, from, to, DEFAULT_GRAIN, body);
+    }
+
+    static void forRange(ForkJoinPool pool, int from, int to, int grain, RangeBody body) {
+        if (to - from <= grain) {
+            body.run(from, to);
+            return;
+        }
+        pool.invoke(new RangeTask(from, to, Math.max(1, grain), body));
+    }
+
+    /**
+     * 在 pool 中執行 Arrays.parallelSort；排序工作會 fork 到呼叫它的 worker 所屬的 pool，而不是 commonPool。
+     */
+    static void sort(ForkJoinPool pool, long[] values) {
+        pool.submit(() -> Arrays.parallelSort(values)).join();
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, grain;
+        private final RangeBody body;
+
+        RangeTask(int from, int to, int grain, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package GraphCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 逐層同步 (level-synchronous) 的平行 BFS，可同時從多個起點出發。
+ *
+ * 每一層的前沿切成固定大小的區塊交給 ForkJoinPool；頂點以 CAS 在 AtomicLongArray
+ * 位元圖上「認領」，同一個頂點只會被一條執行緒認領，因此 distance / parent 的寫入
+ * 不需要鎖。各區塊把新發現的頂點寫進自己的緩衝區，層結束時依區塊順序串接成下一層前沿。
+ *
+ * 距離一定是最短跳數；同一層有多個父節點候選時，parent 取決於哪條執行緒先認領。
+ */
+public final class ParallelBfs {
+
+    private static final int CHUNK = 1 << 10; // 每個工作處理的前沿頂點數
+
+    /**
+     * BFS 結果：distance[v] 為到最近起點的跳數，parent[v] 為 BFS 樹中的父節點；
+     * 不可達的頂點兩者皆為 -1，起點的 parent 為 -1。
+     */
+    public static final class Result {
+        public final int[] distance;
+        public final int[] parent;
+        public final int reached; // 可到達的頂點數 (含起點)
+        public final int levels;  // 層數，即最大距離 + 1
+
+        Result(int[] distance, int[] parent, int reached, int levels) {
+            this.distance = distance;
+            this.parent = parent;
+            this.reached = reached;
+            this.levels = levels;
+        }
+    }
+
+    private final CsrGraph graph;
+    private final ForkJoinPool pool;
+
+    public ParallelBfs(CsrGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBfs(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * @param sources 起點 (可重複，重複的會被忽略)
+     */
+    public Result run(int... sources) {
+        final int n = graph.numVertices;
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final int[] distance = new int[n];
+        final int[] parent = new int[n];
+        Arrays.fill(distance, -1);
+        Arrays.fill(parent, -1);
+        final AtomicLongArray visited = new AtomicLongArray(GraphTraversal.words(n));
+
+        int[] frontier = new int[sources.length];
+        int frontierSize = 0;
+        for (int s : sources) {
+            if (claim(visited, s)) {
+                distance[s] = 0;
+                frontier[frontierSize++] = s;
+            }
+        }
+        int reached = frontierSize;
+        int level = 0;
+
+        while (frontierSize > 0) {
+            final int[] current = frontier;
+            final int size = frontierSize;
+            final int depth = level + 1;
+            final int chunks = (size + CHUNK - 1) / CHUNK;
+            final int[][] found = new int[chunks][];
+            final int[] foundCount = new int[chunks];
+
+            Parallel.forRange(pool, 0, chunks, 1, (lo, hi) -> {
+                for (int c = lo; c < hi; c++) {
+                    int[] out = new int[64];
+                    int count = 0;
+                    int end = Math.min(size, (c + 1) * CHUNK);
+                    for (int i = c * CHUNK; i < end; i++) {
+                        int v = current[i];
+                        for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                            int u = targets[a];
+                            if (!claim(visited, u)) continue;
+                            distance[u] = depth;
+                            parent[u] = v;
+                            if (count == out.length) out = Arrays.copyOf(out, count * 2);
+                            out[count++] = u;
+                        }
+                    }
+                    found[c] = out;
+                    foundCount[c] = count;
+                }
+            });
+
+            int nextSize = 0;
+            for (int c = 0; c < chunks; c++) nextSize += foundCount[c];
+            int[] next = new int[nextSize];
+            int position = 0;
+            for (int c = 0; c < chunks; c++) {
+                System.arraycopy(found[c], 0, next, position, foundCount[c]);
+                position += foundCount[c];
+            }
+            frontier = next;
+            frontierSize = nextSize;
+            reached += nextSize;
+            if (nextSize > 0) level++;
+        }
+        return new Result(distance, parent, reached, reached == 0 ? 0 : level + 1);
+    }
+
+    // 位元已設定時直接返回，只有未訪問時才嘗試 CAS
+    private static boolean claim(AtomicLongArray bits, int v) {
+        int w = v >>> 6;
+        long mask = 1L << v;
+        long old = bits.get(w);
+        while ((old & mask) == 0) {
+            if (bits.compareAndSet(w, old, old | mask)) return true;
+            old = bits.get(w);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package GraphCore;
+
+import java.util.Arrays;
+
+/**
+ * 演算法執行步驟的紀錄，供動畫事後重播。
+ *
+ * 每個步驟是三個 int (類型, a, b)，連續存放在一個可成長的 int[] 中，
+ * 記錄時不建立任何物件，也不碰觸 Swing。演算法的 log 參數為 null 時完全不記錄，
+ * 可在批次工作中以全速執行。
+ */
+public final class StepLog {
+
+    /** 頂點 a 被訪問，b 為前驅 (起點為 -1)。 */
+    public static final int VISIT = 1;
+    /** 邊 a 被加入結果 (例如最小生成樹)，b 為新加入的頂點或 -1。 */
+    public static final int ADD_EDGE = 2;
+
+    private int[] data = new int[3 * 64];
+    private int size;
+
+    public void add(int type, int a, int b) {
+        int i = size * 3;
+        if (i + 3 > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[i] = type;
+        data[i + 1] = a;
+        data[i + 2] = b;
+        size++;
+    }
+
+    public int size() { return size; }
+
+    public int type(int step) { return data[step * 3]; }
+    public int a(int step) { return data[step * 3 + 1]; }
+    public int b(int step) { return data[step * 3 + 2]; }
+
+    public void clear() { size = 0; }
+}
@@ -0,0 +1,302 @@
+package GraphCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 有向圖的強連通元件 (SCC)。
+ *
+ * - tarjan：迭代 (顯式堆疊) 的 Tarjan 演算法，O(V + E)，不會 StackOverflowError。
+ *   元件編號依完成順序，編號小的元件不會有邊指向編號大的元件 (反向拓撲順序)。
+ * - parallelColoring：以著色法平行計算，適合大圖。先以度數最大的頂點為樞紐做一次前向 / 後向走訪，
+ *   直接取出最大的 SCC (著色的輪數與直徑成正比，大元件上逐步傳播會很慢)。之後每一輪先剔除
+ *   沒有入邊或沒有出邊的頂點 (它們自成一個元件)，再把最大的頂點 ID 沿出邊傳播成顏色；顏色等於自身 ID 的頂點是根，
+ *   從根沿反向邊只走同顏色的頂點，走到的就是根所在的 SCC。各步驟都以 ForkJoinPool 平行執行。
+ *   元件編號依每個元件中最小的頂點 ID 排序，不保證拓撲順序。
+ *
+ * 無向圖 (每條邊兩個方向) 的 SCC 就是連通塊。
+ */
+public final class StronglyConnectedComponents {
+
+    private final int[] component;
+    private final int count;
+
+    private StronglyConnectedComponents(int[] component, int count) {
+        this.component = component;
+        this.count = count;
+    }
+
+    public static StronglyConnectedComponents tarjan(CsrGraph graph) {
+        final int n = graph.numVertices;
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] cursor = new int[n];
+        int[] callStack = new int[n];
+        int[] sccStack = new int[n];
+        long[] onStack = new long[GraphTraversal.words(n)];
+        int[] component = new int[n];
+        Arrays.fill(index, -1);
+        int nextIndex = 0, sccTop = 0, count = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) continue;
+            int top = 0;
+            callStack[top++] = root;
+            index[root] = low[root] = nextIndex++;
+            cursor[root] = offsets[root];
+            sccStack[sccTop++] = root;
+            GraphTraversal.set(onStack, root);
+
+            while (top > 0) {
+                int v = callStack[top - 1];
+                int end = offsets[v + 1];
+                int a = cursor[v];
+                boolean descended = false;
+                for (; a < end; a++) {
+                    int u = targets[a];
+                    if (index[u] == -1) {
+                        index[u] = low[u] = nextIndex++;
+                        cursor[u] = offsets[u];
+                        sccStack[sccTop++] = u;
+                        GraphTraversal.set(onStack, u);
+                        callStack[top++] = u;
+                        descended = true;
+                        a++;
+                        break;
+                    }
+                    if (GraphTraversal.get(onStack, u) && index[u] < low[v]) low[v] = index[u];
+                }
+                cursor[v] = a;
+                if (descended) continue;
+
+                top--;
+                if (low[v] == index[v]) {
+                    int u;
+                    do {
+                        u = sccStack[--sccTop];
+                        onStack[u >>> 6] &= ~(1L << u);
+                        component[u] = count;
+                    } while (u != v);
+                    count++;
+                }
+                if (top > 0) {
+                    int p = callStack[top - 1];
+                    if (low[v] < low[p]) low[p] = low[v];
+                }
+            }
+        }
+        return new StronglyConnectedComponents(component, count);
+    }
+
+    public static StronglyConnectedComponents parallelColoring(CsrGraph graph) {
+        return parallelColoring(graph, ForkJoinPool.commonPool());
+    }
+
+    public static StronglyConnectedComponents parallelColoring(CsrGraph graph, ForkJoinPool pool) {
+        final int n = graph.numVertices;
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        final CsrGraph reverse = graph.reverse();
+        final int[] rOffsets = reverse.offsets;
+        final int[] rTargets = reverse.targets;
+        final int[] root = new int[n];   // 元件的代表頂點，-1 表示尚未決定
+        final int[] color = new int[n];
+        Arrays.fill(root, -1);
+
+        int[] remaining = new int[n];
+        for (int v = 0; v < n; v++) remaining[v] = v;
+        int remainingCount = n;
+        if (n > 0) {
+            remainingCount = removePivotComponent(offsets, targets, rOffsets, rTargets, root, n);
+            int next = 0;
+            for (int v = 0; v < n; v++) {
+                if (root[v] < 0) remaining[next++] = v;
+            }
+        }
+
+        while (remainingCount > 0) {
+            final int[] live = remaining;
+            final int liveCount = remainingCount;
+
+            // 1. 剔除：在剩下的子圖中沒有入邊或沒有出邊的頂點自成一個 SCC
+            boolean[] trivial = new boolean[liveCount];
+            Parallel.forRange(pool, 0, liveCount, (lo, hi) -> {
+                for (int i = lo; i < hi; i++) {
+                    int v = live[i];
+                    trivial[i] = !hasLiveNeighbor(offsets, targets, root, v)
+                            || !hasLiveNeighbor(rOffsets, rTargets, root, v);
+                }
+            });
+            for (int i = 0; i < liveCount; i++) {
+                if (trivial[i]) root[live[i]] = live[i];
+            }
+
+            // 2. 著色：每個頂點的顏色為可到達它的頂點中最大的 ID (在剩下的子圖中)
+            Parallel.forRange(pool, 0, liveCount, (lo, hi) -> {
+                for (int i = lo; i < hi; i++) color[live[i]] = live[i];
+            });
+            boolean changed = true;
+            while (changed) {
+                boolean[] anyChange = new boolean[1];
+                Parallel.forRange(pool, 0, liveCount, (lo, hi) -> {
+                    boolean local = false;
+                    for (int i = lo; i < hi; i++) {
+                        int v = live[i];
+                        if (root[v] >= 0) continue;
+                        int best = color[v];
+                        for (int a = rOffsets[v]; a < rOffsets[v + 1]; a++) {
+                            int u = rTargets[a];
+                            if (root[u] < 0 && color[u] > best) best = color[u];
+                        }
+                        if (best != color[v]) {
+                            color[v] = best; // 只寫自己的欄位；讀到舊值只會讓收斂慢一輪
+                            local = true;
+                        }
+                    }
+                    if (local) anyChange[0] = true;
+                });
+                changed = anyChange[0];
+            }
+
+            // 3. 從每個顏色的根沿反向邊走訪同顏色的頂點，各顏色互不相交，可平行處理
+            int rootCount = 0;
+            int[] roots = new int[liveCount];
+            for (int i = 0; i < liveCount; i++) {
+                int v = live[i];
+                if (root[v] < 0 && color[v] == v) roots[rootCount++] = v;
+            }
+            final int[] colorRoots = roots;
+            Parallel.forRange(pool, 0, rootCount, 1, (lo, hi) -> {
+                int[] queue = new int[64];
+                for (int r = lo; r < hi; r++) {
+                    int c = colorRoots[r];
+                    int head = 0, tail = 0;
+                    queue[tail++] = c;
+                    root[c] = c;
+                    while (head < tail) {
+                        int v = queue[head++];
+                        for (int a = rOffsets[v]; a < rOffsets[v + 1]; a++) {
+                            int u = rTargets[a];
+                            if (root[u] >= 0 || color[u] != c) continue;
+                            root[u] = c;
+                            if (tail == queue.length) queue = Arrays.copyOf(queue, tail * 2);
+                            queue[tail++] = u;
+                        }
+                    }
+                }
+            });
+
+            // 4. 剩下尚未決定的頂點進入下一輪
+            int next = 0;
+            for (int i = 0; i < liveCount; i++) {
+                if (root[live[i]] < 0) live[next++] = live[i];
+            }
+            remainingCount = next;
+        }
+
+        // 依元件中最小的頂點 ID 重新編號為 0..count-1
+        int[] label = new int[n];
+        Arrays.fill(label, -1);
+        int[] component = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int r = root[v];
+            if (label[r] < 0) label[r] = count++;
+            component[v] = label[r];
+        }
+        return new StronglyConnectedComponents(component, count);
+    }
+
+    // 樞紐 = 出度 * 入度最大的頂點；前向可達且後向可達的頂點就是樞紐所在的 SCC。回傳剩下的頂點數
+    private static int removePivotComponent(int[] offsets, int[] targets, int[] rOffsets, int[] rTargets,
+                                            int[] root, int n) {
+        int pivot = 0;
+        long best = -1;
+        for (int v = 0; v < n; v++) {
+            long score = (long) (offsets[v + 1] - offsets[v]) * (rOffsets[v + 1] - rOffsets[v]);
+            if (score > best) {
+                best = score;
+                pivot = v;
+            }
+        }
+        long[] forward = new long[GraphTraversal.words(n)];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        GraphTraversal.set(forward, pivot);
+        queue[tail++] = pivot;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                int u = targets[a];
+                if (GraphTraversal.get(forward, u)) continue;
+                GraphTraversal.set(forward, u);
+                queue[tail++] = u;
+            }
+        }
+        // 後向走訪只經過前向可達的頂點，走到的都在 SCC 中
+        head = tail = 0;
+        root[pivot] = pivot;
+        queue[tail++] = pivot;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int a = rOffsets[v]; a < rOffsets[v + 1]; a++) {
+                int u = rTargets[a];
+                if (root[u] >= 0 || !GraphTraversal.get(forward, u)) continue;
+                root[u] = pivot;
+                queue[tail++] = u;
+            }
+        }
+        return n - tail;
+    }
+
+    private static boolean hasLiveNeighbor(int[] offsets, int[] targets, int[] root, int v) {
+        for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+            int u = targets[a];
+            if (u != v && root[u] < 0) return true;
+        }
+        return false;
+    }
+
+    public int count() { return count; }
+
+    public int componentOf(int v) { return component[v]; }
+
+    /**
+     * 每個頂點的元件編號 (不複製，請勿修改)。
+     */
+    public int[] labels() { return component; }
+
+    public int[] sizes() {
+        int[] sizes = new int[count];
+        for (int c : component) sizes[c]++;
+        return sizes;
+    }
+
+    /**
+     * 縮點圖 (condensation)：每個 SCC 縮成一個頂點，元件之間的重複邊只保留一條，結果必為 DAG。
+     */
+    public CsrGraph condensation(CsrGraph graph) {
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        LongHashSet seen = new LongHashSet();
+        int[] from = new int[16];
+        int[] to = new int[16];
+        int edges = 0;
+        for (int v = 0; v < graph.numVertices; v++) {
+            int cv = component[v];
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                int cu = component[targets[a]];
+                if (cu == cv || !seen.add(((long) cv << 32) | cu)) continue;
+                if (edges == from.length) {
+                    from = Arrays.copyOf(from, edges * 2);
+                    to = Arrays.copyOf(to, edges * 2);
+                }
+                from[edges] = cv;
+                to[edges++] = cu;
+            }
+        }
+        return CsrGraph.fromEdges(count, from, to, null, edges, true);
+    }
+}
@@ -0,0 +1,39 @@
+package GraphCore;
+
+/**
+ * Kahn 演算法的拓撲排序：反覆取出入度為 0 的頂點，O(V + E)。
+ * 佇列為 FIFO：起始的入度 0 頂點依 ID 由小到大排入，之後歸零的頂點依 CSR 中 arc 的順序排入，
+ * 因此對同一個 CsrGraph 結果是確定的 (但不保證同時歸零的頂點依 ID 排序)。
+ *
+ * 有環的圖沒有拓撲順序；可先用 StronglyConnectedComponents.condensation 縮點成 DAG 再排序。
+ */
+public final class TopologicalSort {
+
+    private TopologicalSort() {
+    }
+
+    /**
+     * @return 拓撲順序 (每條邊 u -> v 中 u 都排在 v 之前)；圖中有環時回傳 null
+     */
+    public static int[] kahn(CsrGraph graph) {
+        if (!graph.directed) throw new IllegalArgumentException("拓撲排序只適用於有向圖");
+        final int n = graph.numVertices;
+        final int[] offsets = graph.offsets;
+        final int[] targets = graph.targets;
+        int[] inDegree = new int[n];
+        for (int t : targets) inDegree[t]++;
+
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) queue[tail++] = v;
+        }
+        while (head < tail) {
+            int v = queue[head++];
+            for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                if (--inDegree[targets[a]] == 0) queue[tail++] = targets[a];
+            }
+        }
+        return tail == n ? queue : null;
+    }
+}
@@ -0,0 +1,333 @@
+package StockCore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * 各股票工具共用的 CSV 讀取器：以記憶體映射 (memory-mapped) 讀檔，多執行緒解析。
+ *
+ * 檔案 (或其中一段位元組範圍) 切成約 SEGMENT_BYTES 大小、對齊換行的區段，
+ * 每個區段各自 map 並交給 ForkJoinPool 中的一個工作，以自己的 RowSink 接收資料列。
+ * 欄位直接從映射的位元組解析 (數字、日期不經過 String)，只有呼叫 Row.string 時才建立字串。
+ * 回傳的 sink 依區段順序排列，依序合併即為檔案順序。
+ *
+ * 空行會被略過；行尾的 \r、欄位前後的空白會被忽略；檔案開頭的 UTF-8 BOM 會被略過。
+ * 欄位中不可含有逗號 (不處理引號)。
+ */
+public final class CsvScanner {
+
+    private static final int SEGMENT_BYTES = 1 << 24; // 每個區段約 16MB
+    private static final int PROBE_BYTES = 1 << 12;   // 尋找區段邊界時每次讀取的位元組數
+
+    /**
+     * 接收資料列的介面；每個區段一個實例，只會被一條執行緒呼叫。
+     */
+    public interface RowSink {
+        void row(Row row);
+    }
+
+    private CsvScanner() {
+    }
+
+    public static <S extends RowSink> List<S> scan(Path file, boolean header, Supplier<S> sinks) throws IOException {
+        return scan(file, 0, -1, header, sinks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 平行讀取 file 中 [start, end) 的資料列。
+     * @param end 結束位置，-1 表示檔案結尾
+     * @param header 範圍中的第一行是否為標頭 (略過)
+     * @param sinks 為每個區段建立一個 RowSink
+     * @return 各區段的 RowSink，依檔案順序排列
+     */
+    public static <S extends RowSink> List<S> scan(Path file, long start, long end, boolean header,
+                                                   Supplier<S> sinks, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (end < 0) end = channel.size();
+            if (start == 0 && hasBom(channel)) start = 3;
+            long[] bounds = segmentBounds(channel, start, end);
+
+            List<S> result = new ArrayList<>();
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int s = 0; s + 1 < bounds.length; s++) {
+                S sink = sinks.get();
+                result.add(sink);
+                long from = bounds[s], to = bounds[s + 1];
+                boolean skipFirst = header && s == 0;
+                tasks.add(() -> {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                    parse(buffer, from, skipFirst, sink);
+                    return null;
+                });
+            }
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    throw new IOException(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("讀取被中斷", e);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static boolean hasBom(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(3);
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+            // 讀滿 3 個位元組或到達檔案結尾
+        }
+        return head.position() == 3 && (head.get(0) & 0xFF) == 0xEF
+                && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF;
+    }
+
+    // 區段邊界：每隔 SEGMENT_BYTES 往後找到下一個換行，邊界放在換行之後
+    private static long[] segmentBounds(FileChannel channel, long start, long end) throws IOException {
+        long[] bounds = new long[16];
+        int count = 0;
+        bounds[count++] = start;
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_BYTES);
+        long target = start + SEGMENT_BYTES;
+        while (target < end) {
+            long boundary = end;
+            long position = target - 1;
+            search:
+            while (position < end) {
+                probe.clear();
+                if (end - position < PROBE_BYTES) probe.limit((int) (end - position));
+                int n = channel.read(probe, position);
+                if (n <= 0) break;
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        boundary = position + i + 1;
+                        break search;
+                    }
+                }
+                position += n;
+            }
+            if (boundary >= end) break;
+            if (count == bounds.length) bounds = Arrays.copyOf(bounds, count * 2);
+            bounds[count++] = boundary;
+            target = boundary + SEGMENT_BYTES;
+        }
+        if (count == bounds.length) bounds = Arrays.copyOf(bounds, count + 1);
+        bounds[count++] = end;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static void parse(ByteBuffer buffer, long base, boolean skipFirst, RowSink sink) {
+        Row row = new Row(buffer);
+        int limit = buffer.limit();
+        int lineStart = 0;
+        boolean skip = skipFirst;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') continue;
+            int lineEnd = i;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') lineEnd--;
+            if (skip) {
+                skip = false;
+            } else if (lineEnd > lineStart && !blank(buffer, lineStart, lineEnd)) {
+                row.set(base + lineStart, lineStart, lineEnd);
+                sink.row(row);
+            }
+            lineStart = i + 1;
+        }
+    }
+
+    private static boolean blank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t') return false;
+        }
+        return true;
+    }
+
+    /**
+     * 目前的資料列，欄位以索引 (從 0 開始) 存取。
+     * 同一個 Row 物件會在同一區段中重複使用，不可在 RowSink.row 之外保留。
+     */
+    public static final class Row {
+        private final ByteBuffer buffer;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int fields;
+        private long offset;
+        private byte[] scratch = new byte[64];
+
+        Row(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        // 切出欄位並去除前後空白
+        void set(long offset, int from, int to) {
+            this.offset = offset;
+            fields = 0;
+            int fieldStart = from;
+            for (int i = from; i <= to; i++) {
+                if (i < to && buffer.get(i) != ',') continue;
+                if (fields == starts.length) {
+                    starts = Arrays.copyOf(starts, fields * 2);
+                    ends = Arrays.copyOf(ends, fields * 2);
+                }
+                int s = fieldStart, e = i;
+                while (s < e && isSpace(buffer.get(s))) s++;
+                while (e > s && isSpace(buffer.get(e - 1))) e--;
+                starts[fields] = s;
+                ends[fields++] = e;
+                fieldStart = i + 1;
+            }
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t';
+        }
+
+        public int fieldCount() { return fields; }
+
+        /**
+         * @return 這一行在檔案中的位元組位置
+         */
+        public long offset() { return offset; }
+
+        public int length(int field) { return ends[field] - starts[field]; }
+
+        /**
+         * 以 UTF-8 解碼欄位 (會建立 String，大量資料時請優先使用數字或位元組的方法)。
+         */
+        public String string(int field) {
+            int length = length(field);
+            if (scratch.length < length) scratch = new byte[length];
+            buffer.get(starts[field], scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * 複製欄位的原始位元組。
+         */
+        public byte[] bytes(int field) {
+            byte[] value = new byte[length(field)];
+            buffer.get(starts[field], value, 0, value.length);
+            return value;
+        }
+
+        public boolean fieldEquals(int field, byte[] value) {
+            if (length(field) != value.length) return false;
+            int s = starts[field];
+            for (int i = 0; i < value.length; i++) {
+                if (buffer.get(s + i) != value[i]) return false;
+            }
+            return true;
+        }
+
+        public long parseLong(int field) {
+            int i = starts[field], e = ends[field];
+            boolean negative = i < e && buffer.get(i) == '-';
+            if (negative || (i < e && buffer.get(i) == '+')) i++;
+            if (i == e) throw numberError(field);
+            // 以負數累加 (與 Long.parseLong 相同)，才能表示 Long.MIN_VALUE；溢位時拋出例外而不是回繞
+            long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+            long value = 0;
+            for (; i < e; i++) {
+                int d = buffer.get(i) - '0';
+                if (d < 0 || d > 9) throw numberError(field);
+                if (value < (limit + d) / 10) throw numberError(field);
+                value = value * 10 - d;
+            }
+            return negative ? value : -value;
+        }
+
+        public int parseInt(int field) {
+            return Math.toIntExact(parseLong(field));
+        }
+
+        /**
+         * 一般的小數 (例如 123.45) 直接以整數 / 10 的次方計算，結果與 Double.parseDouble 相同；
+         * 位數過多或含指數時改用 Double.parseDouble。
+         */
+        public double parseDouble(int field) {
+            int i = starts[field], e = ends[field];
+            boolean negative = i < e && buffer.get(i) == '-';
+            if (negative || (i < e && buffer.get(i) == '+')) i++;
+            long mantissa = 0;
+            int digits = 0, scale = -1;
+            for (; i < e; i++) {
+                byte b = buffer.get(i);
+                if (b == '.' && scale < 0) {
+                    scale = 0;
+                    continue;
+                }
+                int d = b - '0';
+                if (d < 0 || d > 9 || digits >= 15) return Double.parseDouble(string(field));
+                mantissa = mantissa * 10 + d;
+                digits++;
+                if (scale >= 0) scale++;
+            }
+            if (digits == 0) throw numberError(field);
+            double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+            return negative ? -value : value;
+        }
+
+        /**
+         * 解析 yyyy-MM-dd 或 yyyy/M/d 等格式的日期 (月、日可為一或兩位數)。
+         * @return yyyyMMdd 形式的整數，例如 20240105
+         */
+        public int date(int field) {
+            int i = starts[field], e = ends[field];
+            int value = 0, result = 0; // result 累積已完成的年、月
+            int part = 0, digits = 0;
+            for (; i < e; i++) {
+                byte b = buffer.get(i);
+                if (b == '-' || b == '/') {
+                    if (digits == 0 || ++part > 2) throw dateError(field);
+                    result = result * 100 + value;
+                    value = 0;
+                    digits = 0;
+                    continue;
+                }
+                int d = b - '0';
+                if (d < 0 || d > 9) throw dateError(field);
+                value = value * 10 + d;
+                digits++;
+            }
+            if (part != 2 || digits == 0) throw dateError(field);
+            return result * 100 + value;
+        }
+
+        private NumberFormatException numberError(int field) {
+            return new NumberFormatException("無效的數字：" + string(field) + " (位置 " + offset + ")");
+        }
+
+        private IllegalArgumentException dateError(int field) {
+            return new IllegalArgumentException("無效的日期：" + string(field) + " (位置 " + offset + ")");
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+    /**
+     * yyyyMMdd 整數轉成 epoch day。
+     */
+    public static int epochDay(int yyyymmdd) {
+        return (int) LocalDate.of(yyyymmdd / 10000, yyyymmdd / 100 % 100, yyyymmdd % 100).toEpochDay();
+    }
+}